@@ -0,0 +1,84 @@
+package io.github.apollozhu.mazesolver.bench;
+
+import io.github.apollozhu.mazesolver.model.Maze;
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.model.MazeCoder;
+import io.github.apollozhu.mazesolver.model.MazeFile;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Generating mazes, and turning them into and out of files and integer grids.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CodecBenchmark {
+    @Param({"32", "128", "512"})
+    public int size;
+
+    @Param({"0.6", "0.7", "0.8"})
+    public double density;
+
+    private MazeBlock[][] maze;
+    private int[][] grid;
+    private MazeFile.Info info;
+    private Path directory, file;
+    private Random random;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Saving logs every file name.
+        Logger.getGlobal().setLevel(Level.WARNING);
+        maze = Mazes.solvable(size, density);
+        grid = MazeCoder.encode(maze);
+        info = MazeFile.Info.init(maze, new MazeBlock.Location(0, 0), new MazeBlock.Location(size - 1, size - 1));
+        directory = Files.createTempDirectory("maze-bench");
+        file = Paths.get(MazeFile.write(info, directory.toString()));
+        random = new Random(Mazes.SEED);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public MazeBlock[][] generate() {
+        return Maze.generate(size, size, density, random);
+    }
+
+    @Benchmark
+    public int[][] encode() {
+        return MazeCoder.encode(maze);
+    }
+
+    @Benchmark
+    public MazeBlock[][] decode() {
+        return MazeCoder.decode(grid);
+    }
+
+    @Benchmark
+    public String write() {
+        return MazeFile.write(info, directory.toString());
+    }
+
+    @Benchmark
+    public MazeFile.Info read() {
+        return MazeFile.read(file);
+    }
+}
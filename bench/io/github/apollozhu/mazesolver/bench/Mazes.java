@@ -0,0 +1,27 @@
+package io.github.apollozhu.mazesolver.bench;
+
+import io.github.apollozhu.mazesolver.model.Maze;
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+
+import java.util.Random;
+
+/**
+ * The same mazes for every benchmark run, so numbers can be compared.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+enum Mazes {
+    ;
+    static final long SEED = 42;
+
+    /**
+     * @return a square maze with a path between the top left and bottom right corner.
+     */
+    static MazeBlock[][] solvable(int size, double density) {
+        return Maze.generateSolvable(size, size, density, 0, 0, size - 1, size - 1, new Random(SEED));
+    }
+
+    static void copy(MazeBlock[][] from, MazeBlock[][] to) {
+        for (int i = 0; i < from.length; i++) System.arraycopy(from[i], 0, to[i], 0, from[i].length);
+    }
+}
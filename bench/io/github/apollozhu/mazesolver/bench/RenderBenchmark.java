@@ -0,0 +1,61 @@
+package io.github.apollozhu.mazesolver.bench;
+
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.solver.MazeSolver;
+import io.github.apollozhu.mazesolver.view.MazeCanvas;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paints a solved maze off-screen, the way every frame of an export is drawn.
+ * The canvas is a fixed size, so bigger mazes mean smaller blocks.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+    @Param({"32", "128", "512"})
+    public int size;
+
+    @Param({"0.6", "0.7", "0.8"})
+    public double density;
+
+    @Param({"1024"})
+    public int pixels;
+
+    private MazeCanvas canvas;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setUp() {
+        MazeBlock[][] map = Mazes.solvable(size, density);
+        // Visited and path blocks have their own glyphs.
+        MazeSolver.Type.DFS.init().start(map, 0, 0, size - 1, size - 1);
+        canvas = new MazeCanvas(map);
+        canvas.setSize(pixels, pixels);
+        canvas.setStart(new MazeBlock.Location(0, 0));
+        canvas.setTarget(new MazeBlock.Location(size - 1, size - 1));
+        image = new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        canvas.paint(graphics);
+        return image;
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.apollozhu.mazesolver.bench;
+
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.solver.MazeSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves the same maze over and over with every solver.
+ * Each solve starts from a fresh copy, and {@link #copy()}
+ * tells how much of the time that copy takes.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+// The recursive solver needs a deep stack for big mazes.
+@Fork(value = 1, jvmArgsAppend = "-Xss256m")
+public class SolverBenchmark {
+    @Param({"32", "128", "512"})
+    public int size;
+
+    @Param({"0.6", "0.7", "0.8"})
+    public double density;
+
+    @Param({"RECURSIVE", "STACK", "DFS", "BFS"})
+    public MazeSolver.Type type;
+
+    private MazeBlock[][] maze, map;
+    private MazeSolver solver;
+
+    @Setup
+    public void setUp() {
+        maze = Mazes.solvable(size, density);
+        map = new MazeBlock[size][size];
+        solver = type.init();
+    }
+
+    @Benchmark
+    public boolean solve() {
+        Mazes.copy(maze, map);
+        return solver.start(map, 0, 0, size - 1, size - 1);
+    }
+
+    @Benchmark
+    public MazeBlock[][] copy() {
+        Mazes.copy(maze, map);
+        return map;
+    }
+}
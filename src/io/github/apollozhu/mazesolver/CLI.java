@@ -1,5 +1,6 @@
 package io.github.apollozhu.mazesolver;
 
+import io.github.apollozhu.mazesolver.cli.CommandLine;
 import io.github.apollozhu.mazesolver.model.Maze;
 import io.github.apollozhu.mazesolver.model.MazeBlock;
 import io.github.apollozhu.mazesolver.model.MazeCoder;
@@ -7,6 +8,8 @@ import io.github.apollozhu.mazesolver.solver.MazeSolver;
 import io.github.apollozhu.mazesolver.solver.RecursiveMazeSolver;
 
 import java.util.Scanner;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public enum CLI {
     ;
@@ -37,6 +40,11 @@ public enum CLI {
     };
 
     public static void main(String[] args) {
+        if (args.length > 0) {
+            // Only real problems on stderr.
+            Logger.getGlobal().setLevel(Level.WARNING);
+            System.exit(CommandLine.run(args, System.out, System.err));
+        }
         Scanner input = new Scanner(System.in);
 
         System.out.print("Welcome to Maze Solver.\n" +
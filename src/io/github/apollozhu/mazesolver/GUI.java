@@ -2,6 +2,7 @@ package io.github.apollozhu.mazesolver;
 
 import io.github.apollozhu.mazesolver.controller.AboutPanel;
 import io.github.apollozhu.mazesolver.controller.MazePanel;
+import io.github.apollozhu.mazesolver.solver.SolverMetrics;
 import io.github.apollozhu.mazesolver.utilities.Resources;
 import io.github.apollozhu.mazesolver.utilities.Safely;
 
@@ -20,6 +21,7 @@ public enum GUI {
         frame = new JFrame();
         frame.setSize(size);
         frame.setVisible(true);
+        SolverMetrics.register();
         Desktop desktop = Desktop.getDesktop();
         Safely.execute(() -> desktop.setAboutHandler(AboutPanel::display));
         SwingUtilities.invokeLater(() -> {
@@ -4,24 +4,22 @@ package io.github.apollozhu.mazesolver;
  */
 
 import io.github.apollozhu.mazesolver.controller.AboutPanel;
-import io.github.apollozhu.mazesolver.controller.MazePanel;
+import io.github.apollozhu.mazesolver.fx.MazePane;
+import io.github.apollozhu.mazesolver.solver.SolverMetrics;
 import io.github.apollozhu.mazesolver.utilities.Resources;
 import io.github.apollozhu.mazesolver.utilities.Safely;
 import javafx.application.Application;
 import javafx.application.Platform;
-import javafx.embed.swing.SwingNode;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
-import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 
-import javax.swing.*;
 import java.awt.*;
 
 public class JavaFX extends Application {
 
     public static void main(String[] args) {
+        SolverMetrics.register();
         launch(args);
     }
 
@@ -29,35 +27,8 @@ public class JavaFX extends Application {
     public void start(Stage primaryStage) {
         final Desktop desktop = Desktop.getDesktop();
         Safely.execute(() -> desktop.setAboutHandler(AboutPanel::display));
-        final BorderPane root = new BorderPane();
-        final SwingNode swingNode = new SwingNode(), menuNode = new SwingNode();
-        final AnchorPane pane = new AnchorPane(), menuPane = new AnchorPane();
-        SwingUtilities.invokeLater(() -> {
-            MazePanel panel = new MazePanel();
-            JMenuBar bar = panel.getMenuBar();
-            if (Resources.isMacOS()) {
-                Safely.execute(() -> desktop.setDefaultMenuBar(bar));
-                Resources.trySetMacOSDockIcon();
-            } else menuNode.setContent(bar);
-            Safely.execute(() -> desktop.requestForeground(true));
-            swingNode.setContent(panel);
-            AboutPanel.display();
-            SwingUtilities.updateComponentTreeUI(panel);
-            SwingUtilities.updateComponentTreeUI(bar);
-        });
-        root.setTop(menuPane);
-        menuPane.getChildren().add(menuNode);
-        AnchorPane.setTopAnchor(menuNode, 0.);
-        AnchorPane.setBottomAnchor(menuNode, 0.);
-        AnchorPane.setLeftAnchor(menuNode, 0.);
-        AnchorPane.setRightAnchor(menuNode, 0.);
-
-        root.setCenter(pane);
-        pane.getChildren().add(swingNode);
-        AnchorPane.setTopAnchor(swingNode, 0.);
-        AnchorPane.setBottomAnchor(swingNode, 0.);
-        AnchorPane.setLeftAnchor(swingNode, 0.);
-        AnchorPane.setRightAnchor(swingNode, 0.);
+        // Drawn by JavaFX itself, instead of a Swing MazePanel inside a SwingNode.
+        final MazePane root = new MazePane();
 
         Dimension size = Toolkit.getDefaultToolkit().getScreenSize();
         primaryStage.setTitle("Maze Solver - Zhiyu Zhu, Period 1");
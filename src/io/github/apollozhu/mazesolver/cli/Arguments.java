@@ -0,0 +1,238 @@
+package io.github.apollozhu.mazesolver.cli;
+
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.solver.MazeSolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * What to solve and how, parsed from the command line.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class Arguments {
+    public static final String USAGE = String.join("\n",
+            "Usage: CLI [options] <maze file>...",
+            "       CLI [options] --generate <rows>x<columns>",
+            "       CLI bench --help",
+            "       CLI serve --help",
+            "       CLI http --help",
+            "",
+            "Maze:",
+            "  --generate RxC        solve a random maze instead of files",
+            "  --density P           chance of a generated block being empty (default 0.7)",
+            "  --seed N              seed for --generate",
+            "  --solvable            always leave a path between start and target",
+            "  --start R,C           start block (default: from the file, or top left)",
+            "  --target R,C          target block (default: from the file, or bottom right)",
+            "Solving:",
+            "  --solver NAME         recursive, stack, dfs or bfs (default dfs)",
+            "  --time-limit MS       give up after this many milliseconds",
+            "  --max-expansions N    give up after trying this many moves",
+            "Output:",
+            "  --format FORMAT       json (one object per line), path or grid (default json)",
+            "  -h, --help            show this message",
+            "",
+            "Exit status: 0 if every maze has a path, 1 if one has none, 2 for bad",
+            "arguments, 3 if a limit was hit, 4 if a maze couldn't be read or solved.");
+
+    private static final List<String> VALUED_OPTIONS = Arrays.asList("--generate", "--density", "--seed",
+            "--start", "--target", "--solver", "--format", "--time-limit", "--max-expansions");
+
+    private final List<String> files = new ArrayList<>();
+    private int generateRows = -1, generateColumns = -1;
+    private double density = 0.7;
+    private Long seed;
+    private boolean isSolvable, isHelp;
+    private MazeBlock.Location start, target;
+    private MazeSolver.Type solver = MazeSolver.Type.DFS;
+    private Format format = Format.JSON;
+    private long timeLimit = -1, maxExpansions = -1;
+
+    private Arguments() {
+    }
+
+    public static Arguments parse(String[] args) throws UsageException {
+        Arguments arguments = new Arguments();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("-") || arg.equals("-")) {
+                arguments.files.add(arg);
+                continue;
+            }
+            // Both "--option value" and "--option=value".
+            String value = null;
+            int equals = arg.indexOf('=');
+            if (equals > 0) {
+                value = arg.substring(equals + 1);
+                arg = arg.substring(0, equals);
+            }
+            switch (arg) {
+                case "-h":
+                case "--help":
+                    arguments.isHelp = true;
+                    break;
+                case "--solvable":
+                    arguments.isSolvable = true;
+                    break;
+                case "--":
+                    for (i++; i < args.length; i++) arguments.files.add(args[i]);
+                    break;
+                default:
+                    if (!VALUED_OPTIONS.contains(arg)) throw new UsageException("Unknown option " + arg);
+                    if (value == null) {
+                        if (++i == args.length) throw new UsageException(arg + " needs a value");
+                        value = args[i];
+                    }
+                    arguments.set(arg, value);
+            }
+        }
+        if (arguments.isHelp) return arguments;
+        boolean isGenerating = arguments.generateRows >= 0;
+        if (isGenerating == !arguments.files.isEmpty())
+            throw new UsageException(isGenerating ? "Either --generate or maze files, not both"
+                    : "Give maze files or --generate");
+        if (!isGenerating && (arguments.seed != null || arguments.isSolvable))
+            throw new UsageException("--seed and --solvable only work with --generate");
+        return arguments;
+    }
+
+    private void set(String option, String value) throws UsageException {
+        try {
+            switch (option) {
+                case "--generate": {
+                    String[] size = value.toLowerCase(Locale.ROOT).split("x");
+                    if (size.length != 2) throw new UsageException("--generate takes <rows>x<columns>");
+                    generateRows = Integer.parseInt(size[0].trim());
+                    generateColumns = Integer.parseInt(size[1].trim());
+                    if (generateRows <= 0 || generateColumns <= 0)
+                        throw new UsageException("Mazes need at least one row and column");
+                    break;
+                }
+                case "--density":
+                    density = Double.parseDouble(value);
+                    if (!(density >= 0 && density <= 1)) throw new UsageException("--density is between 0 and 1");
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--start":
+                    start = parseLocation(option, value);
+                    break;
+                case "--target":
+                    target = parseLocation(option, value);
+                    break;
+                case "--solver":
+                    solver = MazeSolver.Type.valueOf(value.toUpperCase(Locale.ROOT));
+                    break;
+                case "--format":
+                    format = Format.valueOf(value.toUpperCase(Locale.ROOT));
+                    break;
+                case "--time-limit":
+                    timeLimit = parseLimit(option, value);
+                    break;
+                case "--max-expansions":
+                    maxExpansions = parseLimit(option, value);
+                    break;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new UsageException("Invalid value for " + option + ": " + value);
+        }
+    }
+
+    private static MazeBlock.Location parseLocation(String option, String value) throws UsageException {
+        String[] parts = value.split(",");
+        if (parts.length != 2) throw new UsageException(option + " takes <row>,<column>");
+        return new MazeBlock.Location(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+    }
+
+    private static long parseLimit(String option, String value) throws UsageException {
+        long limit = Long.parseLong(value);
+        if (limit <= 0) throw new UsageException(option + " should be positive");
+        return limit;
+    }
+
+    public List<String> getFiles() {
+        return files;
+    }
+
+    public boolean isGenerating() {
+        return generateRows >= 0;
+    }
+
+    public int getGenerateRows() {
+        return generateRows;
+    }
+
+    public int getGenerateColumns() {
+        return generateColumns;
+    }
+
+    public double getDensity() {
+        return density;
+    }
+
+    /**
+     * @return null for a random seed.
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    public boolean isSolvable() {
+        return isSolvable;
+    }
+
+    public boolean isHelp() {
+        return isHelp;
+    }
+
+    /**
+     * @return null to use the default.
+     */
+    public MazeBlock.Location getStart() {
+        return start;
+    }
+
+    /**
+     * @return null to use the default.
+     */
+    public MazeBlock.Location getTarget() {
+        return target;
+    }
+
+    public MazeSolver.Type getSolver() {
+        return solver;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * @return milliseconds, or -1 for no limit.
+     */
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * @return tryouts, or -1 for no limit.
+     */
+    public long getMaxExpansions() {
+        return maxExpansions;
+    }
+
+    public enum Format {
+        JSON, PATH, GRID
+    }
+
+    public static class UsageException extends Exception {
+        public UsageException(String message) {
+            super(message);
+        }
+    }
+}
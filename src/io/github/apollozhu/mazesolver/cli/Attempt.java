@@ -0,0 +1,137 @@
+package io.github.apollozhu.mazesolver.cli;
+
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.solver.MazeSolver;
+import io.github.apollozhu.mazesolver.solver.SolveMetrics;
+
+/**
+ * Runs a solver once, stopping it from inside
+ * the events once a limit is reached.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+class Attempt implements MazeSolver.MSEventListener<Object> {
+    // The recursive solver needs a deep stack for big mazes.
+    static final long SOLVER_STACK_SIZE = 256L << 20;
+    private final MazeSolver solver;
+    private final MazeBlock[][] map;
+    private final MazeBlock.Location start, end;
+    private final long timeLimit, maxExpansions;
+    private long deadline, expanded, millis;
+    private boolean hasPath, isLimitReached;
+    private Throwable error;
+
+    /**
+     * @param timeLimit     milliseconds, or -1 for no limit.
+     * @param maxExpansions tryouts, or -1 for no limit.
+     */
+    Attempt(MazeSolver solver, MazeBlock[][] map, MazeBlock.Location start, MazeBlock.Location end,
+            long timeLimit, long maxExpansions) {
+        this.solver = solver;
+        this.map = map;
+        this.start = start;
+        this.end = end;
+        this.timeLimit = timeLimit;
+        this.maxExpansions = maxExpansions;
+    }
+
+    /**
+     * Solves on a new thread with a deep enough stack.
+     *
+     * @return if the solver finished or gave up at a limit, instead of crashing.
+     */
+    boolean run() {
+        Thread thread = new Thread(null, this::solve, "Solver", SOLVER_STACK_SIZE);
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            error = e;
+            Thread.currentThread().interrupt();
+        }
+        return error == null;
+    }
+
+    /**
+     * Solves on this thread, which should have been
+     * created with a stack of {@link #SOLVER_STACK_SIZE}.
+     *
+     * @return if the solver finished or gave up at a limit, instead of crashing.
+     */
+    boolean solve() {
+        solver.addEventListener(this);
+        long begin = System.nanoTime();
+        deadline = timeLimit < 0 ? Long.MAX_VALUE : begin + timeLimit * 1_000_000;
+        try {
+            hasPath = solver.start(map, start.getR(), start.getC(), end.getR(), end.getC());
+        } catch (LimitReached e) {
+            isLimitReached = true;
+        } catch (Throwable t) {
+            error = t;
+        } finally {
+            millis = (System.nanoTime() - begin) / 1_000_000;
+            solver.removeEventListener(this);
+        }
+        return error == null;
+    }
+
+    boolean hasPath() {
+        return hasPath;
+    }
+
+    boolean isLimitReached() {
+        return isLimitReached;
+    }
+
+    long getExpanded() {
+        return expanded;
+    }
+
+    long getMillis() {
+        return millis;
+    }
+
+    SolveMetrics getMetrics() {
+        return solver.getMetrics();
+    }
+
+    /**
+     * @return why the solver crashed, or null if it didn't.
+     */
+    Throwable getError() {
+        return error;
+    }
+
+    private void check() {
+        if (expanded == maxExpansions || System.nanoTime() > deadline) throw new LimitReached();
+    }
+
+    @Override
+    public void started(int r, int c, int tR, int tC, MazeBlock[][] map) {
+    }
+
+    @Override
+    public void tryout(int r, int c, MazeSolver.Direction direction, Object path, MazeBlock[][] map) {
+        check();
+        expanded++;
+    }
+
+    @Override
+    public void found(int tR, int tC, Object path, MazeBlock[][] map) {
+    }
+
+    @Override
+    public void failed(int r, int c, Object path, MazeBlock[][] map) {
+        check();
+    }
+
+    @Override
+    public void ended(boolean hasPath, MazeBlock[][] map) {
+    }
+
+    private static class LimitReached extends RuntimeException {
+        LimitReached() {
+            super(null, null, false, false);
+        }
+    }
+}
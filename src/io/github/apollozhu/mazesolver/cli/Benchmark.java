@@ -0,0 +1,359 @@
+package io.github.apollozhu.mazesolver.cli;
+
+import io.github.apollozhu.mazesolver.model.Maze;
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.model.MazeFile;
+import io.github.apollozhu.mazesolver.solver.MazeSolver;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Times every solver on the same mazes, so releases can be compared.
+ * Mazes are generated from a fixed seed for every size and density,
+ * or loaded from files. Each solver first solves every maze a few times
+ * to warm up, then each solve is timed on its own, and how much it
+ * allocated is read from the thread's counter if the JVM keeps one.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class Benchmark {
+    public static final String USAGE = String.join("\n",
+            "Usage: CLI bench [options] [maze file]...",
+            "",
+            "Without maze files, solvable mazes are generated for every size and density.",
+            "  --sizes LIST          comma separated RxC (default 32x32,128x128,512x512)",
+            "  --densities LIST      comma separated empty block chances (default 0.6,0.7,0.8)",
+            "  --mazes N             mazes of each size and density (default 4)",
+            "  --seed N              seed for generating (default 42)",
+            "  --solvers LIST        comma separated solvers (default all)",
+            "  --warmup N            untimed solves of every maze first (default 5)",
+            "  --iterations N        timed solves of every maze (default 10)",
+            "  --csv FILE            also write the results as CSV",
+            "  -h, --help            show this message");
+    private static final String[] COLUMNS = {"solver", "mazes", "solves", "solves/s",
+            "p50 ms", "p95 ms", "p99 ms", "expanded/solve", "alloc MB/s", "bytes/solve"};
+    // The recursive solver needs a deep stack for big mazes.
+    private static final long STACK_SIZE = 256L << 20;
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final List<String> files = new ArrayList<>();
+    private final List<int[]> sizes = new ArrayList<>();
+    private final List<Double> densities = new ArrayList<>();
+    private final List<MazeSolver.Type> solvers = new ArrayList<>();
+    private int mazes = 4, warmup = 5, iterations = 10;
+    private long seed = 42;
+    private Path csv;
+    private boolean isHelp;
+
+    private Benchmark() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+            this.threads = (com.sun.management.ThreadMXBean) threads;
+            this.threads.setThreadAllocatedMemoryEnabled(true);
+        } else this.threads = null;
+    }
+
+    /**
+     * @return exit status like {@link CommandLine#run(String[], PrintStream, PrintStream)}.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Benchmark benchmark = new Benchmark();
+        try {
+            benchmark.parse(args);
+        } catch (Arguments.UsageException e) {
+            err.println(e.getMessage());
+            err.println("Try bench --help for more information.");
+            return CommandLine.USAGE;
+        }
+        if (benchmark.isHelp) {
+            out.println(USAGE);
+            return CommandLine.SOLVED;
+        }
+        int[] status = {CommandLine.SOLVED};
+        Thread thread = new Thread(null, () -> status[0] = benchmark.run(out, err), "Benchmark", STACK_SIZE);
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CommandLine.FAILED;
+        }
+        return status[0];
+    }
+
+    private void parse(String[] args) throws Arguments.UsageException {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (!option.startsWith("-")) {
+                files.add(option);
+                continue;
+            }
+            if (option.equals("-h") || option.equals("--help")) {
+                isHelp = true;
+                continue;
+            }
+            if (++i == args.length) throw new Arguments.UsageException(option + " needs a value");
+            String value = args[i];
+            try {
+                switch (option) {
+                    case "--sizes":
+                        for (String size : value.toLowerCase(Locale.ROOT).split(",")) {
+                            String[] parts = size.split("x");
+                            if (parts.length != 2) throw new Arguments.UsageException("Sizes look like 32x32");
+                            int rows = Integer.parseInt(parts[0].trim()), columns = Integer.parseInt(parts[1].trim());
+                            if (rows <= 0 || columns <= 0)
+                                throw new Arguments.UsageException("Mazes need at least one row and column");
+                            sizes.add(new int[]{rows, columns});
+                        }
+                        break;
+                    case "--densities":
+                        for (String density : value.split(",")) {
+                            double p = Double.parseDouble(density.trim());
+                            if (!(p >= 0 && p <= 1)) throw new Arguments.UsageException("Densities are between 0 and 1");
+                            densities.add(p);
+                        }
+                        break;
+                    case "--solvers":
+                        for (String solver : value.split(","))
+                            solvers.add(MazeSolver.Type.valueOf(solver.trim().toUpperCase(Locale.ROOT)));
+                        break;
+                    case "--mazes":
+                        mazes = parseCount(option, value, 1);
+                        break;
+                    case "--warmup":
+                        warmup = parseCount(option, value, 0);
+                        break;
+                    case "--iterations":
+                        iterations = parseCount(option, value, 1);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--csv":
+                        csv = Paths.get(value);
+                        break;
+                    default:
+                        throw new Arguments.UsageException("Unknown option " + option);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new Arguments.UsageException("Invalid value for " + option + ": " + value);
+            }
+        }
+        if (sizes.isEmpty()) for (int size : new int[]{32, 128, 512}) sizes.add(new int[]{size, size});
+        if (densities.isEmpty()) densities.addAll(Arrays.asList(0.6, 0.7, 0.8));
+        if (solvers.isEmpty()) solvers.addAll(Arrays.asList(MazeSolver.Type.values()));
+    }
+
+    private static int parseCount(String option, String value, int min) throws Arguments.UsageException {
+        int count = Integer.parseInt(value);
+        if (count < min) throw new Arguments.UsageException(option + " should be at least " + min);
+        return count;
+    }
+
+    private int run(PrintStream out, PrintStream err) {
+        List<Group> corpus = new ArrayList<>();
+        if (files.isEmpty()) {
+            Random random = new Random(seed);
+            for (int[] size : sizes)
+                for (double density : densities) {
+                    Group group = new Group(size[0] + "x" + size[1] + "@" + density);
+                    for (int i = 0; i < mazes; i++)
+                        group.add(Maze.generateSolvable(size[0], size[1], density,
+                                0, 0, size[0] - 1, size[1] - 1, random),
+                                new MazeBlock.Location(0, 0), new MazeBlock.Location(size[0] - 1, size[1] - 1));
+                    corpus.add(group);
+                }
+        } else for (String file : files) {
+            MazeFile.Info info = MazeFile.read(Paths.get(file));
+            if (info == null) {
+                err.println(file + ": can't read maze");
+                return CommandLine.FAILED;
+            }
+            Group group = new Group(Paths.get(file).getFileName().toString());
+            group.add(info.getMap(), info.getStart(), info.getEnd());
+            corpus.add(group);
+        }
+        if (threads == null) err.println("Allocation counters aren't supported by this JVM");
+
+        // Warm up every solver on everything before timing anything.
+        for (MazeSolver.Type type : solvers) {
+            MazeSolver solver = type.init();
+            Counter counter = new Counter();
+            solver.addEventListener(counter);
+            for (Group group : corpus)
+                for (int i = 0; i < warmup; i++) group.solveAll(solver, counter, null);
+        }
+
+        List<String[]> rows = new ArrayList<>();
+        for (MazeSolver.Type type : solvers) {
+            MazeSolver solver = type.init();
+            Counter counter = new Counter();
+            solver.addEventListener(counter);
+            for (Group group : corpus) {
+                Result result = new Result(group.size() * iterations);
+                for (int i = 0; i < iterations; i++) group.solveAll(solver, counter, result);
+                rows.add(result.toRow(type.name().toLowerCase(Locale.ROOT), group.name));
+            }
+        }
+        printTable(rows, out);
+        if (csv != null) try {
+            writeCSV(rows, csv);
+        } catch (IOException e) {
+            err.println(csv + ": " + e.getMessage());
+            return CommandLine.FAILED;
+        }
+        return CommandLine.SOLVED;
+    }
+
+    private static void printTable(List<String[]> rows, PrintStream out) {
+        int[] widths = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) widths[i] = COLUMNS[i].length();
+        for (String[] row : rows)
+            for (int i = 0; i < row.length; i++) widths[i] = Math.max(widths[i], row[i].length());
+        printRow(COLUMNS, widths, out);
+        for (String[] row : rows) printRow(row, widths, out);
+        out.flush();
+    }
+
+    // Names to the left, numbers to the right.
+    private static void printRow(String[] row, int[] widths, PrintStream out) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) line.append("  ");
+            String padding = new String(new char[widths[i] - row[i].length()]).replace('\0', ' ');
+            line.append(i < 2 ? row[i] + padding : padding + row[i]);
+        }
+        out.println(line.toString().replaceAll("\\s+$", ""));
+    }
+
+    private static void writeCSV(List<String[]> rows, Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            writer.write(String.join(",", COLUMNS) + "\n");
+            for (String[] row : rows) writer.write(String.join(",", row) + "\n");
+        }
+    }
+
+    private long allocatedBytes() {
+        return threads == null ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private class Group {
+        private final String name;
+        private final List<MazeBlock[][]> maps = new ArrayList<>();
+        private final List<MazeBlock.Location> starts = new ArrayList<>(), ends = new ArrayList<>();
+        private MazeBlock[][] copy;
+
+        Group(String name) {
+            this.name = name;
+        }
+
+        void add(MazeBlock[][] map, MazeBlock.Location start, MazeBlock.Location end) {
+            maps.add(map);
+            starts.add(start);
+            ends.add(end);
+        }
+
+        int size() {
+            return maps.size();
+        }
+
+        /**
+         * @param result null to not record anything.
+         */
+        void solveAll(MazeSolver solver, Counter counter, Result result) {
+            for (int i = 0; i < maps.size(); i++) {
+                MazeBlock[][] map = maps.get(i);
+                MazeBlock.Location start = starts.get(i), end = ends.get(i);
+                if (copy == null || copy.length != map.length || copy[0].length != map[0].length)
+                    copy = new MazeBlock[map.length][map[0].length];
+                for (int r = 0; r < map.length; r++) System.arraycopy(map[r], 0, copy[r], 0, map[r].length);
+                counter.expanded = 0;
+                long bytes = allocatedBytes();
+                long begin = System.nanoTime();
+                solver.start(copy, start.getR(), start.getC(), end.getR(), end.getC());
+                long nanos = System.nanoTime() - begin;
+                bytes = allocatedBytes() - bytes;
+                if (result != null) result.add(nanos, counter.expanded, bytes);
+            }
+        }
+    }
+
+    private class Result {
+        private final long[] nanos;
+        private int count;
+        private long expanded, bytes;
+
+        Result(int capacity) {
+            nanos = new long[capacity];
+        }
+
+        void add(long nanos, long expanded, long bytes) {
+            this.nanos[count++] = nanos;
+            this.expanded += expanded;
+            this.bytes += bytes;
+        }
+
+        // Nearest rank.
+        private double percentile(long[] sorted, double p) {
+            return sorted[Math.max((int) Math.ceil(p * sorted.length) - 1, 0)] / 1e6;
+        }
+
+        String[] toRow(String solver, String mazes) {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            double seconds = 0;
+            for (long time : sorted) seconds += time / 1e9;
+            boolean hasBytes = threads != null;
+            return new String[]{solver, mazes, String.valueOf(count),
+                    format("%.1f", count / seconds),
+                    format("%.3f", percentile(sorted, 0.50)),
+                    format("%.3f", percentile(sorted, 0.95)),
+                    format("%.3f", percentile(sorted, 0.99)),
+                    format("%.1f", (double) expanded / count),
+                    hasBytes ? format("%.1f", bytes / seconds / (1 << 20)) : "",
+                    hasBytes ? String.valueOf(bytes / count) : ""};
+        }
+
+        private String format(String format, double value) {
+            return String.format(Locale.ROOT, format, value);
+        }
+    }
+
+    private static class Counter implements MazeSolver.MSEventListener<Object> {
+        private long expanded;
+
+        @Override
+        public void started(int r, int c, int tR, int tC, MazeBlock[][] map) {
+        }
+
+        @Override
+        public void tryout(int r, int c, MazeSolver.Direction direction, Object path, MazeBlock[][] map) {
+            expanded++;
+        }
+
+        @Override
+        public void found(int tR, int tC, Object path, MazeBlock[][] map) {
+        }
+
+        @Override
+        public void failed(int r, int c, Object path, MazeBlock[][] map) {
+        }
+
+        @Override
+        public void ended(boolean hasPath, MazeBlock[][] map) {
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package io.github.apollozhu.mazesolver.cli;
+
+import io.github.apollozhu.mazesolver.model.Maze;
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.model.MazeFile;
+import io.github.apollozhu.mazesolver.model.MazeTextWriter;
+import io.github.apollozhu.mazesolver.solver.MazeSolution;
+import io.github.apollozhu.mazesolver.solver.MazeSolver;
+import io.github.apollozhu.mazesolver.solver.SolveMetrics;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Solves mazes without asking anything, for scripts and pipelines.
+ * Results go to one stream in the chosen format, problems to another,
+ * and whether every maze could be solved is told by the exit status.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public enum CommandLine {
+    ;
+    public static final int SOLVED = 0, NO_PATH = 1, USAGE = 2, LIMIT_REACHED = 3, FAILED = 4;
+    private static final char[] DIRECTION_LETTERS = {'U', 'R', 'D', 'L'};
+
+    /**
+     * @return exit status, the worst one of all mazes.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        if (args.length > 0 && args[0].equals("bench"))
+            return Benchmark.run(Arrays.copyOfRange(args, 1, args.length), out, err);
+        if (args.length > 0 && args[0].equals("serve"))
+            return SolveServer.run(Arrays.copyOfRange(args, 1, args.length), System.in, out, err);
+        if (args.length > 0 && args[0].equals("http"))
+            return HttpSolveService.run(Arrays.copyOfRange(args, 1, args.length), out, err);
+        Arguments arguments;
+        try {
+            arguments = Arguments.parse(args);
+        } catch (Arguments.UsageException e) {
+            err.println(e.getMessage());
+            err.println("Try --help for more information.");
+            return USAGE;
+        }
+        if (arguments.isHelp()) {
+            out.println(Arguments.USAGE);
+            return SOLVED;
+        }
+        int status = SOLVED;
+        if (arguments.isGenerating()) {
+            int rows = arguments.getGenerateRows(), columns = arguments.getGenerateColumns();
+            MazeBlock.Location start = new MazeBlock.Location(0, 0), end = new MazeBlock.Location(rows - 1, columns - 1);
+            status = solve("generated", generate(arguments, start, end), start, end, arguments, out, err);
+        } else for (String file : arguments.getFiles()) {
+            MazeFile.Info info = MazeFile.read(Paths.get(file));
+            if (info == null) {
+                err.println(file + ": can't read maze");
+                status = Math.max(status, FAILED);
+                continue;
+            }
+            status = Math.max(status, solve(file, info.getMap(), info.getStart(), info.getEnd(), arguments, out, err));
+        }
+        out.flush();
+        return status;
+    }
+
+    private static MazeBlock[][] generate(Arguments arguments, MazeBlock.Location start, MazeBlock.Location end) {
+        int rows = arguments.getGenerateRows(), columns = arguments.getGenerateColumns();
+        if (arguments.getStart() != null) start = arguments.getStart();
+        if (arguments.getTarget() != null) end = arguments.getTarget();
+        Random random = arguments.getSeed() == null ? new Random() : new Random(arguments.getSeed());
+        return arguments.isSolvable() && isInside(start, rows, columns) && isInside(end, rows, columns)
+                ? Maze.generateSolvable(rows, columns, arguments.getDensity(),
+                start.getR(), start.getC(), end.getR(), end.getC(), random)
+                : Maze.generate(rows, columns, arguments.getDensity(), random);
+    }
+
+    static boolean isInside(MazeBlock.Location location, int rows, int columns) {
+        return location.getR() >= 0 && location.getC() >= 0
+                && location.getR() < rows && location.getC() < columns;
+    }
+
+    private static int solve(String name, MazeBlock[][] map, MazeBlock.Location start, MazeBlock.Location end,
+                             Arguments arguments, PrintStream out, PrintStream err) {
+        int rows = map.length, columns = rows == 0 ? 0 : map[0].length;
+        if (arguments.getStart() != null) start = arguments.getStart();
+        if (arguments.getTarget() != null) end = arguments.getTarget();
+        if (!isInside(start, rows, columns) || !isInside(end, rows, columns)) {
+            err.println(name + ": start and target must be inside the " + rows + "x" + columns + " maze");
+            return USAGE;
+        }
+        Attempt attempt = new Attempt(arguments.getSolver().init(), map, start, end,
+                arguments.getTimeLimit(), arguments.getMaxExpansions());
+        if (!attempt.run()) {
+            err.println(name + ": " + arguments.getSolver().description() + " failed");
+            attempt.getError().printStackTrace(err);
+            return FAILED;
+        }
+        MazeSolution solution = attempt.isLimitReached() ? null
+                : MazeSolution.of(map, start, end, attempt.hasPath(), false);
+        boolean hasPath = solution != null && solution.hasPath();
+        switch (arguments.getFormat()) {
+            case JSON:
+                out.println(toJSON(name, rows, columns, start, end, arguments.getSolver(), attempt, solution));
+                break;
+            case PATH:
+                out.println(hasPath ? toPath(solution) : "");
+                break;
+            case GRID:
+                try {
+                    printGrid(map, out);
+                } catch (IOException e) {
+                    err.println(name + ": " + e.getMessage());
+                    return FAILED;
+                }
+                break;
+        }
+        if (attempt.isLimitReached()) {
+            err.println(name + ": gave up after " + attempt.getExpanded() + " moves tried in " + attempt.getMillis() + " ms");
+            return LIMIT_REACHED;
+        }
+        return hasPath ? SOLVED : NO_PATH;
+    }
+
+    static String toJSON(String name, int rows, int columns, MazeBlock.Location start, MazeBlock.Location end,
+                                 MazeSolver.Type solver, Attempt attempt, MazeSolution solution) {
+        StringBuilder json = new StringBuilder("{\"maze\":");
+        appendString(json, name);
+        json.append(",\"rows\":").append(rows).append(",\"columns\":").append(columns)
+                .append(",\"start\":[").append(start.getR()).append(',').append(start.getC())
+                .append("],\"target\":[").append(end.getR()).append(',').append(end.getC())
+                .append("],\"solver\":\"").append(solver.name().toLowerCase(Locale.ROOT))
+                .append("\",\"status\":\"");
+        if (solution == null) json.append("limit_reached\"");
+        else json.append(solution.hasPath() ? "solved\"" : "no_path\"");
+        // Blocks actually expanded; --max-expansions limits the moves tried, which include walls.
+        SolveMetrics metrics = attempt.getMetrics();
+        json.append(",\"expanded\":").append(metrics == null ? attempt.getExpanded() : metrics.getExpanded())
+                .append(",\"millis\":").append(attempt.getMillis());
+        if (metrics != null) {
+            json.append(",\"tried\":").append(attempt.getExpanded())
+                    .append(",\"failed\":").append(metrics.getFailed())
+                    .append(",\"peak_frontier\":").append(metrics.getPeakFrontier());
+            if (metrics.getAllocatedBytes() >= 0)
+                json.append(",\"allocated_bytes\":").append(metrics.getAllocatedBytes());
+        }
+        if (solution != null && solution.hasPath()) {
+            json.append(",\"length\":").append(solution.getLength()).append(",\"path\":\"");
+            for (int i = 0; i < solution.getLength(); i++)
+                json.append(DIRECTION_LETTERS[solution.getDirection(i).ordinal()]);
+            json.append('"');
+        }
+        return json.append('}').toString();
+    }
+
+    static void appendString(StringBuilder json, String string) {
+        json.append('"');
+        for (int i = 0; i < string.length(); i++) {
+            char ch = string.charAt(i);
+            if (ch == '"' || ch == '\\') json.append('\\').append(ch);
+            else if (ch < 0x20) json.append(String.format("\\u%04x", (int) ch));
+            else json.append(ch);
+        }
+        json.append('"');
+    }
+
+    // Every block on the way as "row,column", start and target included.
+    private static String toPath(MazeSolution solution) {
+        StringBuilder path = new StringBuilder();
+        int r = solution.getStart().getR(), c = solution.getStart().getC();
+        path.append(r).append(',').append(c);
+        for (int i = 0; i < solution.getLength(); i++) {
+            MazeSolver.Direction direction = solution.getDirection(i);
+            r += direction.dx();
+            c += direction.dy();
+            path.append(' ').append(r).append(',').append(c);
+        }
+        return path.toString();
+    }
+
+    private static void printGrid(MazeBlock[][] map, PrintStream out) throws IOException {
+        // Closing the writer must not close the stream.
+        WritableByteChannel channel = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer source) {
+                int length = source.remaining();
+                byte[] bytes = new byte[length];
+                source.get(bytes);
+                out.write(bytes, 0, length);
+                return length;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try (MazeTextWriter writer = new MazeTextWriter(channel)) {
+            for (MazeBlock[] row : map) writer.writeRow(row);
+        }
+        out.println();
+    }
+}
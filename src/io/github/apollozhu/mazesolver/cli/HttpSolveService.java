@@ -0,0 +1,437 @@
+package io.github.apollozhu.mazesolver.cli;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.model.MazeFile;
+import io.github.apollozhu.mazesolver.model.PackedMaze;
+import io.github.apollozhu.mazesolver.solver.MazeSolution;
+import io.github.apollozhu.mazesolver.solver.MazeSolver;
+import io.github.apollozhu.mazesolver.solver.SolverMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Solves mazes over HTTP on localhost:
+ * <pre>
+ * POST /mazes?name=8_13_0_0_7_12.maze   body is a maze file, answers its id
+ * GET  /solve?maze=1&amp;start=0,0&amp;target=7,12&amp;solver=bfs&amp;time-limit=100&amp;max-expansions=5000
+ * GET  /metrics                          counters and latency histograms
+ * </pre>
+ * Uploaded mazes are kept packed, up to a number of them, dropping
+ * the least recently used. Requests are handled on virtual threads
+ * when the JVM has them, but solving happens on a few platform threads
+ * with deep stacks, since it keeps a processor busy the whole time.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class HttpSolveService {
+    public static final String USAGE = String.join("\n",
+            "Usage: CLI http [options]",
+            "",
+            "Serves POST /mazes, GET /solve and GET /metrics on localhost.",
+            "  --port N              port to listen on, 0 for any free one (default 8080)",
+            "  --max-mazes N         uploaded mazes to keep (default 256)",
+            "  --max-upload N        largest maze file in bytes (default 16777216)",
+            "  --max-cells N         most blocks an uploaded maze may have (default 16777216)",
+            "  --workers N           mazes solved at the same time (default: processors)",
+            "  --queue N             solves waiting before answering 503 (default 64)",
+            "  -h, --help            show this message");
+    // Upper bounds in milliseconds; one more bucket counts everything slower.
+    private static final long[] BUCKETS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private int port = 8080, maxMazes = 256, maxUpload = 16 << 20, maxCells = 16 << 20,
+            workers = Runtime.getRuntime().availableProcessors(), queue = 64;
+    private boolean isHelp;
+    private final AtomicLong nextID = new AtomicLong(1);
+    private final Map<String, Stored> mazes = new LinkedHashMap<String, Stored>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Stored> eldest) {
+            return size() > maxMazes;
+        }
+    };
+    private final Map<String, Histogram> latencies = new LinkedHashMap<>();
+    // By solver ordinal, then status ordinal.
+    private final LongAdder[][] solves = new LongAdder[MazeSolver.Type.values().length][Status.values().length];
+    private final long startTime = System.nanoTime();
+    private ExecutorService solvers;
+
+    private HttpSolveService() {
+        for (String endpoint : new String[]{"/mazes", "/solve", "/metrics"})
+            latencies.put(endpoint, new Histogram());
+        for (LongAdder[] counts : solves)
+            for (int i = 0; i < counts.length; i++) counts[i] = new LongAdder();
+    }
+
+    /**
+     * Serves until the process ends.
+     *
+     * @return exit status like {@link CommandLine#run(String[], PrintStream, PrintStream)}
+     * if it couldn't start.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        HttpSolveService service = new HttpSolveService();
+        try {
+            service.parse(args);
+        } catch (Arguments.UsageException e) {
+            err.println(e.getMessage());
+            err.println("Try http --help for more information.");
+            return CommandLine.USAGE;
+        }
+        if (service.isHelp) {
+            out.println(USAGE);
+            return CommandLine.SOLVED;
+        }
+        HttpServer server;
+        try {
+            server = service.start();
+        } catch (IOException e) {
+            err.println("Can't listen on port " + service.port + ": " + e.getMessage());
+            return CommandLine.FAILED;
+        }
+        SolverMetrics.register();
+        out.println("Listening on http://localhost:" + server.getAddress().getPort());
+        out.flush();
+        try {
+            new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server.stop(0);
+        return CommandLine.SOLVED;
+    }
+
+    private void parse(String[] args) throws Arguments.UsageException {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("-h") || option.equals("--help")) {
+                isHelp = true;
+                continue;
+            }
+            if (++i == args.length) throw new Arguments.UsageException(option + " needs a value");
+            int value;
+            try {
+                value = Integer.parseInt(args[i]);
+            } catch (NumberFormatException e) {
+                throw new Arguments.UsageException("Invalid value for " + option + ": " + args[i]);
+            }
+            switch (option) {
+                case "--port":
+                    port = value;
+                    break;
+                case "--max-mazes":
+                    maxMazes = value;
+                    break;
+                case "--max-upload":
+                    maxUpload = value;
+                    break;
+                case "--max-cells":
+                    maxCells = value;
+                    break;
+                case "--workers":
+                    workers = value;
+                    break;
+                case "--queue":
+                    queue = value;
+                    break;
+                default:
+                    throw new Arguments.UsageException("Unknown option " + option);
+            }
+        }
+        if (port < 0 || port > 65535) throw new Arguments.UsageException("--port is between 0 and 65535");
+        if (maxMazes <= 0 || maxUpload <= 0 || maxCells <= 0 || workers <= 0 || queue <= 0)
+            throw new Arguments.UsageException("Counts should be positive");
+    }
+
+    private HttpServer start() throws IOException {
+        AtomicInteger count = new AtomicInteger();
+        solvers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue), task -> {
+            Thread thread = new Thread(null, task, "Solver " + count.incrementAndGet(), Attempt.SOLVER_STACK_SIZE);
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/mazes", exchange -> handle(exchange, "POST", this::upload));
+        server.createContext("/solve", exchange -> handle(exchange, "GET", this::solve));
+        server.createContext("/metrics", exchange -> handle(exchange, "GET", this::metrics));
+        server.setExecutor(newHandlerExecutor());
+        server.start();
+        return server;
+    }
+
+    // Virtual threads came after the Java this is built for.
+    private static ExecutorService newHandlerExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        long begin = System.nanoTime();
+        Response response;
+        try {
+            if (!exchange.getRequestMethod().equals(method))
+                response = Response.error(405, "use " + method);
+            else if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath()))
+                response = Response.error(404, "not found");
+            else response = handler.handle(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+        } catch (IllegalArgumentException e) {
+            response = Response.error(400, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            response = Response.error(503, "too many solves waiting");
+        } catch (Throwable e) {
+            // Errors too, so a request that ran out of memory still gets an answer.
+            Logger.getGlobal().log(Level.WARNING, "Failed to handle " + exchange.getRequestURI(), e);
+            response = Response.error(500, "internal error");
+        }
+        try {
+            byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", response.type);
+            exchange.sendResponseHeaders(response.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+            latencies.get(exchange.getHttpContext().getPath()).record(System.nanoTime() - begin);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) return parameters;
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+        return parameters;
+    }
+
+    private Response upload(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        // Version 1 maze files keep their size and ends in the name.
+        String name = parameters.getOrDefault("name", "upload.maze").replaceAll(".*[/\\\\]", "");
+        if (name.isEmpty() || name.startsWith(".")) throw new IllegalArgumentException("invalid name");
+        byte[] bytes = readBody(exchange.getRequestBody());
+        if (bytes == null) return Response.error(413, "maze file is over " + maxUpload + " bytes");
+        Path directory = Files.createTempDirectory("maze-upload");
+        Path file = directory.resolve(name);
+        MazeFile.Info info;
+        try {
+            Files.write(file, bytes);
+            // A few bytes can claim a huge maze, so the size is checked before decoding.
+            if (MazeFile.cellsOf(file) > maxCells)
+                return Response.error(413, "maze has over " + maxCells + " blocks");
+            info = MazeFile.read(file);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(directory);
+        }
+        if (info == null) throw new IllegalArgumentException("can't read maze");
+        MazeBlock[][] map = info.getMap();
+        String id = String.valueOf(nextID.getAndIncrement());
+        synchronized (mazes) {
+            mazes.put(id, new Stored(PackedMaze.of(map), info.getStart(), info.getEnd()));
+        }
+        StringBuilder json = new StringBuilder("{\"id\":");
+        CommandLine.appendString(json, id);
+        json.append(",\"rows\":").append(map.length).append(",\"columns\":").append(map[0].length)
+                .append(",\"start\":[").append(info.getStart().getR()).append(',').append(info.getStart().getC())
+                .append("],\"target\":[").append(info.getEnd().getR()).append(',').append(info.getEnd().getC())
+                .append("]}");
+        return new Response(201, json.toString());
+    }
+
+    /**
+     * @return null if it's too large.
+     */
+    private byte[] readBody(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        int length = 0;
+        for (int read; (read = in.read(buffer, length, buffer.length - length)) >= 0; ) {
+            length += read;
+            if (length > maxUpload) return null;
+            if (length == buffer.length)
+                buffer = Arrays.copyOf(buffer, (int) Math.min(buffer.length * 2L, maxUpload + 1L));
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private Response solve(HttpExchange exchange, Map<String, String> parameters)
+            throws InterruptedException, ExecutionException {
+        String id = parameters.get("maze");
+        if (id == null) throw new IllegalArgumentException("which maze?");
+        Stored stored;
+        synchronized (mazes) {
+            stored = mazes.get(id);
+        }
+        if (stored == null) return Response.error(404, "no maze " + id);
+        MazeBlock.Location start = parameters.containsKey("start") ? parseLocation(parameters.get("start")) : stored.start;
+        MazeBlock.Location end = parameters.containsKey("target") ? parseLocation(parameters.get("target")) : stored.end;
+        MazeSolver.Type type = parseSolver(parameters.getOrDefault("solver", "dfs"));
+        long timeLimit = parseLimit(parameters.get("time-limit")), maxExpansions = parseLimit(parameters.get("max-expansions"));
+        int rows = stored.maze.getRows(), columns = stored.maze.getColumns();
+        if (!CommandLine.isInside(start, rows, columns) || !CommandLine.isInside(end, rows, columns))
+            throw new IllegalArgumentException("start and target must be inside the " + rows + "x" + columns + " maze");
+        Future<String> answer = solvers.submit(() -> {
+            MazeBlock[][] map = stored.maze.toBlocks();
+            Attempt attempt = new Attempt(type.init(), map, start, end, timeLimit, maxExpansions);
+            LongAdder[] counts = solves[type.ordinal()];
+            if (!attempt.solve()) {
+                counts[Status.FAILED.ordinal()].increment();
+                throw new IllegalStateException(attempt.getError());
+            }
+            MazeSolution solution = attempt.isLimitReached() ? null
+                    : MazeSolution.of(map, start, end, attempt.hasPath(), false);
+            Status status = solution == null ? Status.LIMIT_REACHED
+                    : solution.hasPath() ? Status.SOLVED : Status.NO_PATH;
+            counts[status.ordinal()].increment();
+            return CommandLine.toJSON(id, rows, columns, start, end, type, attempt, solution);
+        });
+        return new Response(200, answer.get());
+    }
+
+    private static MazeSolver.Type parseSolver(String value) {
+        for (MazeSolver.Type type : MazeSolver.Type.values())
+            if (type.name().equalsIgnoreCase(value)) return type;
+        StringBuilder names = new StringBuilder();
+        for (MazeSolver.Type type : MazeSolver.Type.values())
+            names.append(names.length() == 0 ? "" : ", ").append(type.name().toLowerCase(Locale.ROOT));
+        throw new IllegalArgumentException("unknown solver, use one of " + names);
+    }
+
+    private static MazeBlock.Location parseLocation(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != 2) throw new IllegalArgumentException("locations look like row,column");
+        return new MazeBlock.Location(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+    }
+
+    private static long parseLimit(String value) {
+        if (value == null) return -1;
+        long limit = Long.parseLong(value);
+        if (limit <= 0) throw new IllegalArgumentException("limits should be positive");
+        return limit;
+    }
+
+    // Prometheus text format.
+    private Response metrics(HttpExchange exchange, Map<String, String> parameters) {
+        StringBuilder text = new StringBuilder();
+        text.append("# TYPE maze_uptime_seconds gauge\n")
+                .append("maze_uptime_seconds ").append((System.nanoTime() - startTime) / 1e9).append('\n');
+        synchronized (mazes) {
+            text.append("# TYPE maze_stored gauge\nmaze_stored ").append(mazes.size()).append('\n');
+        }
+        text.append("# TYPE maze_solves_total counter\n");
+        for (MazeSolver.Type type : MazeSolver.Type.values())
+            for (Status status : Status.values())
+                text.append("maze_solves_total{solver=\"").append(type.name().toLowerCase(Locale.ROOT))
+                        .append("\",status=\"").append(status.name().toLowerCase(Locale.ROOT)).append("\"} ")
+                        .append(solves[type.ordinal()][status.ordinal()].sum()).append('\n');
+        text.append("# TYPE maze_http_request_duration_seconds histogram\n");
+        for (Map.Entry<String, Histogram> entry : latencies.entrySet())
+            entry.getValue().append(text, "maze_http_request_duration_seconds", entry.getKey());
+        return new Response(200, text.toString(), "text/plain; version=0.0.4");
+    }
+
+    private enum Status {
+        SOLVED, NO_PATH, LIMIT_REACHED, FAILED
+    }
+
+    private interface Handler {
+        Response handle(HttpExchange exchange, Map<String, String> parameters) throws Exception;
+    }
+
+    private static class Response {
+        private final int status;
+        private final String body, type;
+
+        Response(int status, String body) {
+            this(status, body, "application/json");
+        }
+
+        Response(int status, String body, String type) {
+            this.status = status;
+            this.body = body;
+            this.type = type;
+        }
+
+        static Response error(int status, String message) {
+            StringBuilder json = new StringBuilder("{\"status\":\"error\",\"message\":");
+            CommandLine.appendString(json, message == null ? "" : message);
+            return new Response(status, json.append('}').toString());
+        }
+    }
+
+    private static class Stored {
+        private final PackedMaze maze;
+        private final MazeBlock.Location start, end;
+
+        Stored(PackedMaze maze, MazeBlock.Location start, MazeBlock.Location end) {
+            this.maze = maze;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static class Histogram {
+        private final LongAdder[] counts = new LongAdder[BUCKETS.length + 1];
+        private final LongAdder nanos = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < counts.length; i++) counts[i] = new LongAdder();
+        }
+
+        void record(long nanos) {
+            this.nanos.add(nanos);
+            int bucket = 0;
+            while (bucket < BUCKETS.length && nanos > TimeUnit.MILLISECONDS.toNanos(BUCKETS[bucket])) bucket++;
+            counts[bucket].increment();
+        }
+
+        void append(StringBuilder text, String name, String endpoint) {
+            long total = 0;
+            String label = "{endpoint=\"" + endpoint + "\"";
+            for (int i = 0; i <= BUCKETS.length; i++) {
+                total += counts[i].sum();
+                text.append(name).append("_bucket").append(label).append(",le=\"")
+                        .append(i < BUCKETS.length ? String.valueOf(BUCKETS[i] / 1e3) : "+Inf")
+                        .append("\"} ").append(total).append('\n');
+            }
+            text.append(name).append("_sum").append(label).append("} ").append(nanos.sum() / 1e9).append('\n');
+            text.append(name).append("_count").append(label).append("} ").append(total).append('\n');
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package io.github.apollozhu.mazesolver.cli;
+
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.model.MazeFile;
+import io.github.apollozhu.mazesolver.solver.MazeSolution;
+import io.github.apollozhu.mazesolver.solver.MazeSolver;
+import io.github.apollozhu.mazesolver.solver.SolverMetrics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps one JVM warm for many solves. Every line read is a request,
+ * answered by one JSON line in the same order, while requests are
+ * solved at the same time by a pool of workers. Reading stops when too
+ * many answers are waiting, and parsed mazes are kept for later requests.
+ * <p>
+ * A request is space separated key=value pairs:
+ * <pre>
+ * id=7 maze=mazes/8_13_0_0_7_12.maze start=0,0 target=7,12 solver=bfs
+ * grid=8x13:&lt;base 64&gt; time-limit=100 max-expansions=5000
+ * </pre>
+ * where grid is an inline maze: the bits of every block row by row,
+ * set for walls and in little endian order, like version 1 maze files,
+ * in exactly as many bytes as the blocks need.
+ * Start and target default to those of the maze file, or the corners.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class SolveServer {
+    public static final String USAGE = String.join("\n",
+            "Usage: CLI serve [options]",
+            "",
+            "Answers one solve request per line of stdin with one JSON line on stdout.",
+            "  --workers N           requests solved at the same time (default: processors)",
+            "  --queue N             answers waiting to be written before reading pauses",
+            "                        (default 4 per worker)",
+            "  --cache N             parsed mazes to keep (default 64)",
+            "  --solver NAME         solver when a request doesn't say (default dfs)",
+            "  --time-limit MS       limit when a request doesn't say",
+            "  --max-expansions N    limit when a request doesn't say",
+            "  -h, --help            show this message",
+            "",
+            "Requests look like:",
+            "  id=1 maze=file.maze start=0,0 target=7,12 solver=bfs",
+            "  id=2 grid=8x13:<base 64 of wall bits> time-limit=100 max-expansions=5000");
+
+    private int workers = Runtime.getRuntime().availableProcessors(), queue = -1, cacheSize = 64;
+    private MazeSolver.Type solver = MazeSolver.Type.DFS;
+    private long timeLimit = -1, maxExpansions = -1;
+    private boolean isHelp;
+    private Map<String, Cached> cache;
+
+    private SolveServer() {
+    }
+
+    /**
+     * Answers requests until the input ends.
+     *
+     * @return exit status like {@link CommandLine#run(String[], PrintStream, PrintStream)}.
+     */
+    public static int run(String[] args, InputStream in, PrintStream out, PrintStream err) {
+        SolveServer server = new SolveServer();
+        try {
+            server.parse(args);
+        } catch (Arguments.UsageException e) {
+            err.println(e.getMessage());
+            err.println("Try serve --help for more information.");
+            return CommandLine.USAGE;
+        }
+        if (server.isHelp) {
+            out.println(USAGE);
+            return CommandLine.SOLVED;
+        }
+        SolverMetrics.register();
+        return server.serve(in, out, err);
+    }
+
+    private void parse(String[] args) throws Arguments.UsageException {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("-h") || option.equals("--help")) {
+                isHelp = true;
+                continue;
+            }
+            if (++i == args.length) throw new Arguments.UsageException(option + " needs a value");
+            String value = args[i];
+            try {
+                switch (option) {
+                    case "--workers":
+                        workers = Integer.parseInt(value);
+                        break;
+                    case "--queue":
+                        queue = Integer.parseInt(value);
+                        break;
+                    case "--cache":
+                        cacheSize = Integer.parseInt(value);
+                        break;
+                    case "--solver":
+                        solver = MazeSolver.Type.valueOf(value.toUpperCase(Locale.ROOT));
+                        break;
+                    case "--time-limit":
+                        timeLimit = Long.parseLong(value);
+                        break;
+                    case "--max-expansions":
+                        maxExpansions = Long.parseLong(value);
+                        break;
+                    default:
+                        throw new Arguments.UsageException("Unknown option " + option);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new Arguments.UsageException("Invalid value for " + option + ": " + value);
+            }
+        }
+        if (workers <= 0 || cacheSize < 0 || timeLimit == 0 || maxExpansions == 0)
+            throw new Arguments.UsageException("Counts and limits should be positive");
+        if (queue < 0) queue = workers * 4;
+        if (queue <= 0) throw new Arguments.UsageException("--queue should be positive");
+    }
+
+    private int serve(InputStream in, PrintStream out, PrintStream err) {
+        int cacheSize = this.cacheSize;
+        // Least recently used first.
+        cache = new LinkedHashMap<String, Cached>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(null, task, "Solver " + count.incrementAndGet(), Attempt.SOLVER_STACK_SIZE);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Answers in the order of the requests, which also bounds how many are being worked on.
+        BlockingQueue<Future<String>> answers = new ArrayBlockingQueue<>(queue);
+        FutureTask<String> end = new FutureTask<>(() -> null);
+        Thread writer = new Thread(() -> write(answers, end, out, err), "Writer");
+        writer.start();
+        int status = CommandLine.SOLVED;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                if (line.trim().isEmpty()) continue;
+                String request = line;
+                FutureTask<String> answer = new FutureTask<>(() -> answer(request));
+                answers.put(answer);
+                pool.execute(answer);
+            }
+        } catch (IOException e) {
+            err.println("Failed to read requests: " + e.getMessage());
+            status = CommandLine.FAILED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = CommandLine.FAILED;
+        }
+        try {
+            answers.put(end);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = CommandLine.FAILED;
+        }
+        pool.shutdown();
+        return out.checkError() ? CommandLine.FAILED : status;
+    }
+
+    private static void write(BlockingQueue<Future<String>> answers, Future<String> end,
+                              PrintStream out, PrintStream err) {
+        try {
+            for (Future<String> answer; (answer = answers.take()) != end; ) {
+                try {
+                    out.println(answer.get());
+                } catch (ExecutionException e) {
+                    err.println("Failed to answer: " + e.getCause());
+                    out.println(error(null, "internal error"));
+                }
+                // Waiting for more would keep whoever sent these waiting.
+                if (answers.isEmpty()) out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.flush();
+    }
+
+    private String answer(String request) {
+        String id = null, maze = null, grid = null;
+        MazeBlock.Location start = null, end = null;
+        MazeSolver.Type solver = this.solver;
+        long timeLimit = this.timeLimit, maxExpansions = this.maxExpansions;
+        try {
+            for (String pair : request.trim().split("\\s+")) {
+                int equals = pair.indexOf('=');
+                if (equals <= 0) return error(id, "expected key=value but got " + pair);
+                String key = pair.substring(0, equals), value = pair.substring(equals + 1);
+                switch (key) {
+                    case "id":
+                        id = value;
+                        break;
+                    case "maze":
+                        maze = value;
+                        break;
+                    case "grid":
+                        grid = value;
+                        break;
+                    case "start":
+                        start = parseLocation(value);
+                        break;
+                    case "target":
+                        end = parseLocation(value);
+                        break;
+                    case "solver":
+                        solver = MazeSolver.Type.valueOf(value.toUpperCase(Locale.ROOT));
+                        break;
+                    case "time-limit":
+                        timeLimit = Long.parseLong(value);
+                        break;
+                    case "max-expansions":
+                        maxExpansions = Long.parseLong(value);
+                        break;
+                    default:
+                        return error(id, "unknown key " + key);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return error(id, "invalid request");
+        }
+        if ((maze == null) == (grid == null)) return error(id, "give either maze or grid");
+        Cached cached;
+        try {
+            cached = maze != null ? load(Paths.get(maze)) : parseGrid(grid);
+        } catch (IOException e) {
+            return error(id, "can't read maze " + maze);
+        } catch (IllegalArgumentException e) {
+            return error(id, e.getMessage());
+        }
+        MazeBlock[][] map = cached.copy();
+        int rows = map.length, columns = rows == 0 ? 0 : map[0].length;
+        if (start == null) start = cached.start;
+        if (end == null) end = cached.end;
+        if (!CommandLine.isInside(start, rows, columns) || !CommandLine.isInside(end, rows, columns))
+            return error(id, "start and target must be inside the " + rows + "x" + columns + " maze");
+        Attempt attempt = new Attempt(solver.init(), map, start, end, timeLimit, maxExpansions);
+        if (!attempt.solve()) return error(id, solver.description() + " failed: " + attempt.getError());
+        MazeSolution solution = attempt.isLimitReached() ? null
+                : MazeSolution.of(map, start, end, attempt.hasPath(), false);
+        String json = CommandLine.toJSON(maze == null ? "inline" : maze, rows, columns, start, end,
+                solver, attempt, solution);
+        return id == null ? json : withID(id, json);
+    }
+
+    private static String withID(String id, String json) {
+        StringBuilder builder = new StringBuilder("{\"id\":");
+        CommandLine.appendString(builder, id);
+        return builder.append(',').append(json, 1, json.length()).toString();
+    }
+
+    private static String error(String id, String message) {
+        StringBuilder json = new StringBuilder("{\"status\":\"error\",\"message\":");
+        CommandLine.appendString(json, message);
+        String error = json.append('}').toString();
+        return id == null ? error : withID(id, error);
+    }
+
+    private static MazeBlock.Location parseLocation(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != 2) throw new IllegalArgumentException(value);
+        return new MazeBlock.Location(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    // Files are read again when they change.
+    private Cached load(Path file) throws IOException {
+        String key = "maze:" + file.toAbsolutePath().normalize();
+        FileTime modified = Files.getLastModifiedTime(file);
+        Cached cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null && modified.equals(cached.modified)) return cached;
+        MazeFile.Info info = MazeFile.read(file);
+        if (info == null) throw new IOException(file.toString());
+        cached = new Cached(info.getMap(), info.getStart(), info.getEnd(), modified);
+        synchronized (cache) {
+            cache.put(key, cached);
+        }
+        return cached;
+    }
+
+    private Cached parseGrid(String grid) {
+        String key = "grid:" + grid;
+        synchronized (cache) {
+            Cached cached = cache.get(key);
+            if (cached != null) return cached;
+        }
+        int colon = grid.indexOf(':'), x = grid.indexOf('x');
+        if (colon < 0 || x < 0 || x > colon) throw new IllegalArgumentException("grid is <rows>x<columns>:<base 64>");
+        int rows = Integer.parseInt(grid.substring(0, x)), columns = Integer.parseInt(grid.substring(x + 1, colon));
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("grid has no blocks");
+        byte[] bits = Base64.getDecoder().decode(grid.substring(colon + 1));
+        // Checked before making the map, so the size alone can't ask for more than was sent.
+        long expected = ((long) rows * columns + 7) / 8;
+        if (bits.length != expected)
+            throw new IllegalArgumentException("grid has " + bits.length + " bytes of walls, but "
+                    + rows + "x" + columns + " needs " + expected);
+        BitSet walls = BitSet.valueOf(bits);
+        MazeBlock[][] map = new MazeBlock[rows][columns];
+        for (int i = 0, k = 0; i < rows; i++)
+            for (int j = 0; j < columns; j++, k++)
+                map[i][j] = walls.get(k) ? MazeBlock.WALL : MazeBlock.EMPTY;
+        Cached cached = new Cached(map, new MazeBlock.Location(0, 0),
+                new MazeBlock.Location(rows - 1, columns - 1), null);
+        synchronized (cache) {
+            cache.put(key, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * A parsed maze, never changed, so each solve works on a copy.
+     */
+    private static class Cached {
+        private final MazeBlock[][] map;
+        private final MazeBlock.Location start, end;
+        private final FileTime modified;
+
+        Cached(MazeBlock[][] map, MazeBlock.Location start, MazeBlock.Location end, FileTime modified) {
+            this.map = map;
+            this.start = start;
+            this.end = end;
+            this.modified = modified;
+        }
+
+        MazeBlock[][] copy() {
+            MazeBlock[][] copy = new MazeBlock[map.length][];
+            for (int i = 0; i < map.length; i++) copy[i] = map[i].clone();
+            return copy;
+        }
+    }
+}
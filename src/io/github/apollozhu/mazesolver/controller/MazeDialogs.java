@@ -0,0 +1,80 @@
+package io.github.apollozhu.mazesolver.controller;
+
+import io.github.apollozhu.mazesolver.model.MazeFile;
+import io.github.apollozhu.mazesolver.model.MazeImage;
+import io.github.apollozhu.mazesolver.utilities.Safely;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Asks where to save or open mazes, kept apart from {@link MazeFile}
+ * so reading and writing mazes never needs Swing.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public enum MazeDialogs {
+    ;
+
+    public static boolean saveMaze(MazeFile.Info info) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Save maze document in...");
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        JDialog parent = TopDialog.getDialog();
+        if (chooser.showSaveDialog(parent) == JFileChooser.APPROVE_OPTION) {
+            String path = MazeFile.write(info, chooser.getSelectedFile().getPath());
+            if (path == null) JOptionPane.showMessageDialog(parent,
+                    "Something went wrong when saving the maze.\n" +
+                            "Please make sure you have selected a folder.",
+                    "Failed!", JOptionPane.ERROR_MESSAGE);
+            else {
+                JOptionPane.showMessageDialog(parent,
+                        "Maze saved to " + path,
+                        "Saved!", JOptionPane.INFORMATION_MESSAGE);
+                Safely.execute(() -> Desktop.getDesktop().browseFileDirectory(Paths.get(path).toFile()));
+                return true;
+            }
+        } else JOptionPane.showMessageDialog(parent,
+                "You didn't choose a directory to save the maze.",
+                "Cancelled!", JOptionPane.WARNING_MESSAGE);
+        return false;
+    }
+
+    public static MazeFile.Info chooseMaze() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Open maze document");
+        chooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        chooser.setFileFilter(new FileNameExtensionFilter("Maze (*.maze, *.png)", "maze", "png"));
+        JDialog parent = TopDialog.getDialog();
+        if (chooser.showOpenDialog(parent) == JFileChooser.APPROVE_OPTION) {
+            Path file = Paths.get(chooser.getSelectedFile().getAbsolutePath());
+            if (MazeFile.isImage(file)) return chooseImageMaze(file, parent);
+            return MazeFile.read(file);
+        }
+        JOptionPane.showMessageDialog(parent,
+                "You didn't choose a maze.",
+                "Cancelled!", JOptionPane.WARNING_MESSAGE);
+        return null;
+    }
+
+    private static MazeFile.Info chooseImageMaze(Path file, JDialog parent) {
+        try {
+            BufferedImage image = MazeImage.load(file);
+            int guess = MazeImage.guessCellSize(image, MazeImage.DEFAULT_THRESHOLD);
+            String input = JOptionPane.showInputDialog(parent,
+                    "Pixels per block:", "" + guess);
+            if (input == null) return null;
+            int cellSize = Integer.parseInt(input.trim());
+            return MazeFile.imageInfo(MazeImage.decode(image, cellSize, MazeImage.DEFAULT_THRESHOLD));
+        } catch (Exception e) {
+            Logger.getGlobal().log(Level.WARNING, "Failed to read maze image", e);
+            return null;
+        }
+    }
+}
@@ -4,17 +4,28 @@ import io.github.apollozhu.mazesolver.GUI;
 import io.github.apollozhu.mazesolver.model.Maze;
 import io.github.apollozhu.mazesolver.model.MazeBlock;
 import io.github.apollozhu.mazesolver.model.MazeFile;
+import io.github.apollozhu.mazesolver.solver.MazeSolution;
 import io.github.apollozhu.mazesolver.solver.MazeSolver;
+import io.github.apollozhu.mazesolver.solver.Timeline;
+import io.github.apollozhu.mazesolver.solver.VisitStatistics;
 import io.github.apollozhu.mazesolver.utilities.Resources;
+import io.github.apollozhu.mazesolver.view.AnimationExporter;
+import io.github.apollozhu.mazesolver.view.HeatmapPainter;
 import io.github.apollozhu.mazesolver.view.MazeCanvas;
+import io.github.apollozhu.mazesolver.view.PerformanceHud;
 import io.github.apollozhu.mazesolver.view.SpringUtilities;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import static java.awt.Desktop.Action.APP_ABOUT;
 
@@ -23,27 +34,42 @@ import static java.awt.Desktop.Action.APP_ABOUT;
  */
 public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListener {
     private static final MazeBlock[][] LAU_MAZE = Maze.decodeLauMaze();
+    // The recursive solver needs a deep stack for big mazes.
+    private static final long EXPORT_STACK_SIZE = 256L << 20;
 
     private static MazeSolver.Type[] types = MazeSolver.Type.values();
     private final JPanel panel = new JPanel(),
             mapGenerationControlPanel = new JPanel(), controlsPanel = new JPanel();
+    private final VisitStatistics statistics = new VisitStatistics();
+    private final HeatmapPainter heatmap = new HeatmapPainter(statistics);
+    private final Timeline timeline = new Timeline();
+    // What the canvas shows while going through the timeline, so the solve itself isn't touched.
+    private MazeBlock[][] replayMap;
+    private int replayStep = -1;
     private JButton pickStartButton, pickEndButton, editWallButton;
     private JComboBox<String> solverComboBox;
     private JTextField rowTextField, columnTextField, percentageTextField;
-    private JMenuItem saveImageMenuItem;
+    private JCheckBox solvableCheckBox;
+    private JMenuItem saveImageMenuItem, saveSolutionMenuItem;
     private MazeSolver solver;
+    private MazeSolution solution;
     private MazeCanvas canvas;
+    private final PerformanceHud hud;
     private boolean isSelectingStart, isSelectingEnd, isEditingWall;
     private MazeBlock.Location start, end;
     private MazeBlock[][] map;
     private int selectedSolverIndex;
     private double pathPercentage = 0.7;
+    private Long seed;
 
     public MazePanel() {
         add(panel, BorderLayout.NORTH);
         panel.setLayout(new GridLayout(2, 1));
         panel.add(mapGenerationControlPanel);
         panel.add(controlsPanel);
+        hud = new PerformanceHud(canvas);
+        hud.setVisible(false);
+        addBelowControls(hud);
         SwingUtilities.invokeLater(this::addMazeGenerationControls);
         SwingUtilities.invokeLater(this::addControls);
         SwingUtilities.invokeLater(this::addMenuIfNeeded);
@@ -62,6 +88,8 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
         mapGenerationControlPanel.add(new JLabel("Path percentage: "));
         mapGenerationControlPanel.add(percentageTextField = new JTextField("" + pathPercentage));
         percentageTextField.addActionListener(this::regenerateMap);
+        mapGenerationControlPanel.add(solvableCheckBox = new JCheckBox("Solvable"));
+        solvableCheckBox.setToolTipText("Always leave a path between the corners");
         JButton regenerateButton = new JButton("Re-Generate");
         mapGenerationControlPanel.add(regenerateButton);
         regenerateButton.addActionListener(this::regenerateMap);
@@ -105,13 +133,11 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
                 1, controlsPanel.getComponentCount(),
                 8, 8, 8, 8);
 
-        addMouseListener(new MouseAdapter() {
+        // On the canvas itself, since its zoom and pan listeners keep clicks from reaching here.
+        canvas.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                MazeCanvas canvas = (MazeCanvas) getCenterComponent();
-                int x = e.getX() - canvas.getX();
-                int y = e.getY() - canvas.getY();
-                MazeBlock.Location location = canvas.getLoc(x, y);
+                MazeBlock.Location location = canvas.getLoc(e.getX(), e.getY());
                 if (location == null || location.getR() < 0 || location.getC() < 0
                         || location.getR() >= map.length || location.getC() >= map[location.getR()].length) return;
                 boolean notWall = !canvas.isWall(location.getR(), location.getC());
@@ -125,6 +151,7 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
                     Maze.clear(map);
                     canvas.setMap(map);
                     map[location.getR()][location.getC()] = notWall ? MazeBlock.WALL : MazeBlock.EMPTY;
+                    seed = null;
                     canvas.setMap(map);
                 } else return;
                 clearMap();
@@ -143,7 +170,7 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
         JMenuItem openFileMenuItem = new JMenuItem("Open...");
         fileMenu.add(openFileMenuItem);
         openFileMenuItem.addActionListener(l -> {
-            MazeFile.Info info = MazeFile.chooseMaze();
+            MazeFile.Info info = MazeDialogs.chooseMaze();
             if (info == null) return;
             if (loadMap(info)) JOptionPane.showMessageDialog(TopDialog.getDialog(),
                     "Successfully loaded the maze",
@@ -155,12 +182,59 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
 
         JMenuItem saveFileMenuItem = new JMenuItem("Save to folder...");
         fileMenu.add(saveFileMenuItem);
-        saveFileMenuItem.addActionListener(l -> MazeFile.saveMaze(MazeFile.Info.init(map, start, end)));
+        saveFileMenuItem.addActionListener(l -> MazeDialogs.saveMaze(MazeFile.Info.init(map, start, end, seed)));
+
+        JMenuItem openSolutionMenuItem = new JMenuItem("Open solution...");
+        fileMenu.add(openSolutionMenuItem);
+        openSolutionMenuItem.addActionListener(l -> chooseSolution());
+
+        saveSolutionMenuItem = new JMenuItem("Save solution...");
+        fileMenu.add(saveSolutionMenuItem);
+        saveSolutionMenuItem.setEnabled(solution != null);
+        saveSolutionMenuItem.addActionListener(l -> saveSolution());
 
         saveImageMenuItem = new JMenuItem("Save as image...");
         fileMenu.add(saveImageMenuItem);
         saveImageMenuItem.addActionListener(l -> canvas.saveSnapshot());
 
+        JMenuItem exportImageMenuItem = new JMenuItem("Export full image...");
+        fileMenu.add(exportImageMenuItem);
+        exportImageMenuItem.addActionListener(l -> exportImage());
+
+        JMenuItem exportAnimationMenuItem = new JMenuItem("Export animation...");
+        fileMenu.add(exportAnimationMenuItem);
+        exportAnimationMenuItem.addActionListener(l -> exportAnimation());
+
+        JMenuItem exportStatisticsMenuItem = new JMenuItem("Export visit counts...");
+        fileMenu.add(exportStatisticsMenuItem);
+        exportStatisticsMenuItem.addActionListener(l -> exportStatistics());
+
+        JMenu viewMenu = new JMenu("View");
+        menuBar.add(viewMenu);
+        JMenuItem fitMenuItem = new JMenuItem("Fit to window");
+        viewMenu.add(fitMenuItem);
+        fitMenuItem.addActionListener(l -> canvas.fitToWindow());
+        JMenuItem raceMenuItem = new JMenuItem("Race solvers...");
+        viewMenu.add(raceMenuItem);
+        raceMenuItem.addActionListener(l -> {
+            MazeBlock[][] copy = new MazeBlock[map.length][];
+            for (int i = 0; i < map.length; i++) copy[i] = map[i].clone();
+            RacePanel.display(copy, start, end);
+        });
+        JCheckBoxMenuItem heatmapMenuItem = new JCheckBoxMenuItem("Show heatmap");
+        viewMenu.add(heatmapMenuItem);
+        heatmapMenuItem.addActionListener(l -> {
+            if (heatmapMenuItem.isSelected()) canvas.addPainter(heatmap);
+            else canvas.removePainter(heatmap);
+            canvas.repaint();
+        });
+        JCheckBoxMenuItem hudMenuItem = new JCheckBoxMenuItem("Show performance HUD");
+        viewMenu.add(hudMenuItem);
+        hudMenuItem.addActionListener(l -> {
+            hud.setVisible(hudMenuItem.isSelected());
+            revalidate();
+        });
+
         if (!Desktop.getDesktop().isSupported(APP_ABOUT)) {
             JMenu windowMenu = new JMenu("Window");
             menuBar.add(windowMenu);
@@ -171,6 +245,208 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
         return menuBar;
     }
 
+    protected void chooseSolution() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Open solution");
+        chooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        chooser.setFileFilter(new FileNameExtensionFilter("Maze solution (*.mazesolution)", "mazesolution"));
+        if (chooser.showOpenDialog(TopDialog.getDialog()) != JFileChooser.APPROVE_OPTION) return;
+        try {
+            MazeSolution loaded = MazeSolution.read(chooser.getSelectedFile().toPath());
+            if (loadSolution(loaded)) return;
+            JOptionPane.showMessageDialog(TopDialog.getDialog(),
+                    "The solution is for a " + loaded.getRows() + "x" + loaded.getColumns() + " maze.",
+                    "Failed!", JOptionPane.ERROR_MESSAGE);
+        } catch (Exception e) {
+            Logger.getGlobal().log(Level.WARNING, "Failed to open solution", e);
+            JOptionPane.showMessageDialog(TopDialog.getDialog(),
+                    "Something went wrong when opening the solution.",
+                    "Failed!", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    protected void saveSolution() {
+        if (solution == null) return;
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Save solution");
+        chooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        chooser.setFileFilter(new FileNameExtensionFilter("Maze solution (*.mazesolution)", "mazesolution"));
+        if (chooser.showSaveDialog(TopDialog.getDialog()) != JFileChooser.APPROVE_OPTION) return;
+        String path = chooser.getSelectedFile().getAbsolutePath();
+        if (!path.endsWith(".mazesolution")) path += ".mazesolution";
+        try {
+            solution.write(Paths.get(path));
+            JOptionPane.showMessageDialog(TopDialog.getDialog(),
+                    "Solution saved to " + path,
+                    "Saved!", JOptionPane.INFORMATION_MESSAGE);
+        } catch (Exception e) {
+            Logger.getGlobal().log(Level.WARNING, "Failed to save solution", e);
+            JOptionPane.showMessageDialog(TopDialog.getDialog(),
+                    "Something went wrong when saving the solution.",
+                    "Failed!", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Saves the whole maze rather than what fits in the window.
+     */
+    protected void exportImage() {
+        String input = JOptionPane.showInputDialog(TopDialog.getDialog(), "Pixels per block:", "16");
+        if (input == null) return;
+        int side;
+        try {
+            side = Integer.parseInt(input.trim());
+        } catch (NumberFormatException e) {
+            side = 0;
+        }
+        if (side < 1) {
+            JOptionPane.showMessageDialog(TopDialog.getDialog(),
+                    "Pixels per block should be a positive whole number.",
+                    "Failed!", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export full image");
+        chooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        chooser.setFileFilter(new FileNameExtensionFilter("Image (*.png)", "png"));
+        if (chooser.showSaveDialog(TopDialog.getDialog()) != JFileChooser.APPROVE_OPTION) return;
+        String path = chooser.getSelectedFile().getAbsolutePath();
+        String file = path.endsWith(".png") ? path : path + ".png";
+        int pixels = side;
+        // Big mazes take a while, so don't hold up the window.
+        new Thread(() -> {
+            try {
+                canvas.exportImage(Paths.get(file), pixels);
+                JOptionPane.showMessageDialog(TopDialog.getDialog(),
+                        "Image saved to " + file,
+                        "Saved!", JOptionPane.INFORMATION_MESSAGE);
+            } catch (Exception e) {
+                Logger.getGlobal().log(Level.WARNING, "Failed to export image", e);
+                JOptionPane.showMessageDialog(TopDialog.getDialog(),
+                        "Something went wrong when exporting the image.",
+                        "Failed!", JOptionPane.ERROR_MESSAGE);
+            }
+        }).start();
+    }
+
+    /**
+     * Records the selected solver on the current maze as fast as it can run,
+     * without the playback controls.
+     */
+    protected void exportAnimation() {
+        JTextField sideTextField = new JTextField("8"), stepsTextField = new JTextField("10");
+        JComboBox<String> formatComboBox = new JComboBox<>(new String[]{"Animated GIF", "PNG sequence"});
+        JPanel options = new JPanel(new GridLayout(3, 2, 8, 8));
+        options.add(new JLabel("Pixels per block: "));
+        options.add(sideTextField);
+        options.add(new JLabel("Solver steps per frame: "));
+        options.add(stepsTextField);
+        options.add(new JLabel("Format: "));
+        options.add(formatComboBox);
+        if (JOptionPane.showConfirmDialog(TopDialog.getDialog(), options, "Export animation",
+                JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) return;
+        int side, steps;
+        try {
+            side = Integer.parseInt(sideTextField.getText().trim());
+            steps = Integer.parseInt(stepsTextField.getText().trim());
+        } catch (NumberFormatException e) {
+            side = steps = 0;
+        }
+        if (side < 1 || steps < 1) {
+            JOptionPane.showMessageDialog(TopDialog.getDialog(),
+                    "Pixels per block and steps per frame should be positive whole numbers.",
+                    "Failed!", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        boolean isGIF = formatComboBox.getSelectedIndex() == 0;
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export animation");
+        if (isGIF) {
+            chooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+            chooser.setFileFilter(new FileNameExtensionFilter("Animated GIF (*.gif)", "gif"));
+        } else chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (chooser.showSaveDialog(TopDialog.getDialog()) != JFileChooser.APPROVE_OPTION) return;
+        String path = chooser.getSelectedFile().getAbsolutePath();
+        String output = !isGIF || path.endsWith(".gif") ? path : path + ".gif";
+        AnimationExporter exporter = new AnimationExporter(isGIF ? AnimationExporter.Format.GIF
+                : AnimationExporter.Format.PNG_SEQUENCE, side, steps, 40);
+        MazeSolver exportSolver = types[selectedSolverIndex].init();
+        MazeBlock.Location exportStart = start, exportEnd = end;
+        new Thread(null, () -> {
+            try {
+                exporter.export(exportSolver, map, exportStart, exportEnd, Paths.get(output));
+                JOptionPane.showMessageDialog(TopDialog.getDialog(),
+                        "Animation saved to " + output,
+                        "Saved!", JOptionPane.INFORMATION_MESSAGE);
+            } catch (Throwable t) {
+                // Errors too, like running out of stack, so the user still hears about it.
+                Logger.getGlobal().log(Level.WARNING, "Failed to export animation", t);
+                JOptionPane.showMessageDialog(TopDialog.getDialog(),
+                        "Something went wrong when exporting the animation.",
+                        "Failed!", JOptionPane.ERROR_MESSAGE);
+            }
+        }, "Export", EXPORT_STACK_SIZE).start();
+    }
+
+    /**
+     * Saves how often the last solve visited each block, as CSV or
+     * as compact binary depending on the extension.
+     */
+    protected void exportStatistics() {
+        if (statistics.getRows() == 0) {
+            JOptionPane.showMessageDialog(TopDialog.getDialog(),
+                    "Solve the maze first to count visits.",
+                    "Failed!", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export visit counts");
+        chooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        FileNameExtensionFilter csv = new FileNameExtensionFilter("Comma-separated values (*.csv)", "csv");
+        chooser.addChoosableFileFilter(csv);
+        chooser.setFileFilter(new FileNameExtensionFilter("Visit counts (*.mazestats)", "mazestats"));
+        if (chooser.showSaveDialog(TopDialog.getDialog()) != JFileChooser.APPROVE_OPTION) return;
+        String path = chooser.getSelectedFile().getAbsolutePath();
+        boolean isCSV = path.endsWith(".csv") || chooser.getFileFilter() == csv;
+        if (isCSV && !path.endsWith(".csv")) path += ".csv";
+        else if (!isCSV && !path.endsWith(".mazestats")) path += ".mazestats";
+        try {
+            if (isCSV) statistics.writeCSV(Paths.get(path));
+            else statistics.write(Paths.get(path));
+            JOptionPane.showMessageDialog(TopDialog.getDialog(),
+                    "Visit counts saved to " + path,
+                    "Saved!", JOptionPane.INFORMATION_MESSAGE);
+        } catch (Exception e) {
+            Logger.getGlobal().log(Level.WARNING, "Failed to export visit counts", e);
+            JOptionPane.showMessageDialog(TopDialog.getDialog(),
+                    "Something went wrong when exporting the visit counts.",
+                    "Failed!", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Shows a previous result on the current maze without solving it again.
+     */
+    protected boolean loadSolution(MazeSolution loaded) {
+        if (loaded.getRows() != map.length || loaded.getColumns() != map[0].length) return false;
+        terminate();
+        setStart(loaded.getStart());
+        setEnd(loaded.getEnd());
+        clearMap();
+        if (!loaded.applyTo(map)) {
+            clearMap();
+            return false;
+        }
+        setSolution(loaded);
+        canvas.showResult(map, loaded.hasPath());
+        return true;
+    }
+
+    private void setSolution(MazeSolution solution) {
+        this.solution = solution;
+        if (saveSolutionMenuItem != null) saveSolutionMenuItem.setEnabled(solution != null);
+    }
+
     protected void addMenuIfNeeded() {
         if (Resources.isMacOS() || GUI.frame == null) return;
         GUI.frame.setJMenuBar(getMenuBar());
@@ -180,6 +456,7 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
     protected boolean loadMap(MazeFile.Info info) {
         if (info == null) return false;
         if (!setMap(info.getMap())) return false;
+        seed = info.getSeed();
         setStart(info.getStart());
         setEnd(info.getEnd());
         return true;
@@ -201,15 +478,21 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
     protected void setMazeSolver(MazeSolver solver) {
         terminate();
         clearMap();
-        if (this.solver != null)
+        if (this.solver != null) {
+            this.solver.removeEventListener(statistics);
+            this.solver.removeEventListener(timeline);
             this.solver.removeEventListener(canvas);
+        }
         this.solver = solver;
         for (int i = 0; i < types.length; i++)
             if (types[i].getClass().equals(solver.getClass())) {
                 solverComboBox.setSelectedIndex(i);
                 break;
             }
+        solver.addEventListener(statistics);
+        solver.addEventListener(timeline);
         solver.addEventListener(canvas);
+        hud.setSolver(solver);
     }
 
     protected void regenerateMap(ActionEvent ignored) {
@@ -217,12 +500,12 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
         double newPercentage = pathPercentage;
         try {
             newR = Integer.parseInt(rowTextField.getText());
-            newR = Math.max(Math.min(newR, canvas.getHeight()), 0);
+            newR = Math.max(newR, 0);
         } catch (Exception e) {
         }
         try {
             newC = Integer.parseInt(columnTextField.getText());
-            newC = Math.max(Math.min(newC, canvas.getWidth()), 0);
+            newC = Math.max(newC, 0);
         } catch (Exception e) {
         }
         try {
@@ -232,7 +515,49 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
         }
         if (percentageTextField == null) return;
         percentageTextField.setText("" + (pathPercentage = newPercentage));
-        setMap(Maze.generate(newR, newC, pathPercentage));
+        long newSeed = new Random().nextLong();
+        Random random = new Random(newSeed);
+        if (setMap(solvableCheckBox.isSelected()
+                ? Maze.generateSolvable(newR, newC, pathPercentage,
+                0, 0, newR - 1, newC - 1, random)
+                : Maze.generate(newR, newC, pathPercentage, random)))
+            seed = newSeed;
+    }
+
+    @Override
+    protected boolean hasTimeline() {
+        return true;
+    }
+
+    @Override
+    protected int getStepCount() {
+        return timeline.size();
+    }
+
+    @Override
+    protected void seek(int step) {
+        if (step < 0 || step >= timeline.size()) return;
+        if (replayMap == null || replayMap.length != map.length || replayMap[0].length != map[0].length) {
+            replayMap = new MazeBlock[map.length][map[0].length];
+            replayStep = -1;
+        }
+        timeline.seek(replayMap, replayStep, step);
+        replayStep = step;
+        canvas.resetMap(replayMap);
+        int r = timeline.getR(step), c = timeline.getC(step);
+        switch (timeline.getKind(step)) {
+            case TRYOUT:
+                canvas.tryout(r, c, timeline.getDirection(step), null, replayMap);
+                break;
+            case FOUND:
+                canvas.found(r, c, null, replayMap);
+                break;
+            case ENDED:
+                canvas.showResult(replayMap, timeline.hasPath());
+                break;
+            default:
+                break;
+        }
     }
 
     @Override
@@ -254,6 +579,10 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
 
     @Override
     protected void resume() {
+        if (replayStep >= 0) {
+            replayStep = -1;
+            canvas.setMap(map);
+        }
         super.resume();
         saveImageMenuItem.setEnabled(false);
     }
@@ -264,6 +593,10 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
     }
 
     protected void terminate(boolean hasPath) {
+        if (replayStep >= 0) {
+            replayStep = -1;
+            canvas.setMap(map);
+        }
         for (Component comp : mapGenerationControlPanel.getComponents()) comp.setEnabled(true);
         for (Component comp : controlsPanel.getComponents()) comp.setEnabled(true);
         if (saveImageMenuItem != null) saveImageMenuItem.setEnabled(true);
@@ -275,10 +608,10 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
     }
 
     protected boolean setMap(MazeBlock[][] newMap) {
-        if (newMap == null || newMap.length == 0 || newMap[0].length == 0 ||
-                newMap.length > canvas.getHeight() ||
-                newMap[0].length > canvas.getWidth()) return false;
+        if (newMap == null || newMap.length == 0 || newMap[0].length == 0) return false;
         map = newMap.clone();
+        statistics.clear();
+        timeline.clear();
         rowTextField.setText("" + map.length);
         columnTextField.setText("" + map[0].length);
         canvas.resetMap(map);
@@ -303,6 +636,8 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
     }
 
     protected void clearMap() {
+        replayStep = -1;
+        setSolution(null);
         Maze.clear(map);
         canvas.resetMap(map);
     }
@@ -329,15 +664,8 @@ public class MazePanel extends PlaybackPanel implements MazeSolver.MSEventListen
 
     @Override
     public void ended(boolean hasPath, MazeBlock[][] map) {
+        setSolution(MazeSolution.of(map, start, end, hasPath, true));
         JOptionPane.showMessageDialog(TopDialog.getDialog(), hasPath ? "It is doable." : "Can do better.");
         terminate(hasPath);
     }
-
-    @Override
-    public void doLayout() {
-        super.doLayout();
-        if (map != null && map.length > canvas.getHeight() ||
-                map.length != 0 && map[0].length > canvas.getWidth())
-            regenerateMap(null);
-    }
 }
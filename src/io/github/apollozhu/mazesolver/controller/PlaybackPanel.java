@@ -1,5 +1,6 @@
 package io.github.apollozhu.mazesolver.controller;
 
+import io.github.apollozhu.mazesolver.utilities.StepPacer;
 import io.github.apollozhu.mazesolver.view.SpringUtilities;
 
 import javax.swing.*;
@@ -16,8 +17,13 @@ public abstract class PlaybackPanel extends JPanel {
     private final JButton start = new JButton("Start");
     private final JSlider slider = new JSlider(JSlider.VERTICAL, 0, MAX, 10);
     private final JButton pauseResume = new JButton("Pause");
+    private final JButton stepBackward = new JButton("Step Back"), stepForward = new JButton("Step Forward");
+    private final JSlider scrubber = new JSlider(0, 0, 0);
+    private final JPanel side = new JPanel(new BorderLayout());
+    private boolean isUpdatingScrubber;
     private Thread thread;
     private double scaleFactor;
+    private final StepPacer pacer = new StepPacer(stepsPerSecond(slider.getValue()));
 
     public PlaybackPanel() {
         setLayout(new BorderLayout());
@@ -26,7 +32,8 @@ public abstract class PlaybackPanel extends JPanel {
         JPanel controls = new JPanel();
         controls.setLayout(new SpringLayout());
         controls.setAlignmentX(SwingConstants.CENTER);
-        add(controls, BorderLayout.EAST);
+        side.add(controls, BorderLayout.CENTER);
+        add(side, BorderLayout.EAST);
         controls.add(start);
         controls.add(pauseResume);
         controls.add(slider);
@@ -38,6 +45,7 @@ public abstract class PlaybackPanel extends JPanel {
                     start.setText("Terminate");
                     pauseResume.setText("Pause");
                     pauseResume.setEnabled(true);
+                    updateTimeline();
                     thread = Thread.currentThread();
                     try {
                         start();
@@ -75,21 +83,93 @@ public abstract class PlaybackPanel extends JPanel {
             double oldValue = scaleFactor;
             double newValue = slider.getValue();
             scaleFactor = newValue;
+            pacer.setStepsPerSecond(stepsPerSecond(slider.getValue()));
             if (oldValue == 0 && newValue != 0) resume();
             if (newValue == 0 && oldValue != 0) pause();
         });
 
         SpringUtilities.makeCompactGrid(controls, 3, 1, 0, 8, 8, 8);
+
+        // Timeline
+        JPanel timeline = new JPanel(new BorderLayout(8, 0));
+        timeline.add(stepBackward, BorderLayout.WEST);
+        timeline.add(scrubber, BorderLayout.CENTER);
+        timeline.add(stepForward, BorderLayout.EAST);
+        if (hasTimeline()) add(timeline, BorderLayout.SOUTH);
+        stepBackward.addActionListener(l -> scrubber.setValue(scrubber.getValue() - 1));
+        stepForward.addActionListener(l -> scrubber.setValue(scrubber.getValue() + 1));
+        scrubber.addChangeListener(ignored -> {
+            if (!isUpdatingScrubber && scrubber.isEnabled()) seek(scrubber.getValue());
+            updateStepButtons();
+        });
+        updateTimeline();
+    }
+
+    // Same speeds the slider used to give as sleep intervals, 40 steps per second at Normal.
+    private double stepsPerSecond(int value) {
+        if (value == MAX) return Double.POSITIVE_INFINITY;
+        return Math.max(value, 10) * 0.4;
     }
 
     protected abstract Component getCenterComponent();
 
+    /**
+     * Shows the component under the start, pause and speed controls.
+     */
+    protected void addBelowControls(Component component) {
+        side.add(component, BorderLayout.SOUTH);
+        side.revalidate();
+    }
+
+    /**
+     * @return whether to show the scrubber, called while constructing.
+     */
+    protected boolean hasTimeline() {
+        return false;
+    }
+
+    /**
+     * @return number of recorded steps that can be gone back to, none by default.
+     */
+    protected int getStepCount() {
+        return 0;
+    }
+
+    /**
+     * Shows how it was at a recorded step, only called while paused or stopped.
+     */
+    protected void seek(int step) {
+    }
+
+    /**
+     * Lets the scrubber reach every recorded step, starting at the latest.
+     * Only allowed while paused or stopped, so it's called then.
+     */
+    protected void updateTimeline() {
+        SwingUtilities.invokeLater(() -> {
+            boolean canSeek = !start.getText().equals("Terminate") || pauseResume.getText().equals("Resume");
+            int count = getStepCount();
+            isUpdatingScrubber = true;
+            scrubber.setMaximum(Math.max(count - 1, 0));
+            scrubber.setValue(scrubber.getMaximum());
+            scrubber.setEnabled(canSeek && count > 0);
+            isUpdatingScrubber = false;
+            updateStepButtons();
+        });
+    }
+
+    private void updateStepButtons() {
+        stepBackward.setEnabled(scrubber.isEnabled() && scrubber.getValue() > scrubber.getMinimum());
+        stepForward.setEnabled(scrubber.isEnabled() && scrubber.getValue() < scrubber.getMaximum());
+    }
+
     protected abstract void start();
 
     @SuppressWarnings("deprecation")
     protected void terminate() {
         start.setText("Start");
         pauseResume.setEnabled(false);
+        updateTimeline();
         if (thread != null) thread.stop();
     }
 
@@ -101,21 +181,19 @@ public abstract class PlaybackPanel extends JPanel {
         getCenterComponent().repaint();
     }
 
+    /**
+     * Waits for the given number of steps at the slider's speed.
+     * The center component repaints on its own, at most once per frame.
+     */
     protected void sleep(int unit) {
-        performUpdate();
-        try {
-            if (scaleFactor == MAX) return; // Non stop
-            double percentage = Math.max(scaleFactor / 100, 0.1);
-            long interval = (long) (unit * 25 / percentage);
-            Thread.sleep(interval);
-        } catch (Exception e) {
-        }
+        pacer.pace(unit);
     }
 
     @SuppressWarnings("deprecation")
     protected void pause() {
         performUpdate();
         pauseResume.setText("Resume");
+        updateTimeline();
         thread.suspend();
     }
 
@@ -126,6 +204,8 @@ public abstract class PlaybackPanel extends JPanel {
             slider.setValue(100);
         }
         pauseResume.setText("Pause");
+        updateTimeline();
+        pacer.reset();
         thread.resume();
         performUpdate();
     }
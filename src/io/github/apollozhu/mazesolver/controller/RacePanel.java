@@ -0,0 +1,257 @@
+package io.github.apollozhu.mazesolver.controller;
+
+import io.github.apollozhu.mazesolver.model.Maze;
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.solver.MazeSolution;
+import io.github.apollozhu.mazesolver.solver.MazeSolver;
+import io.github.apollozhu.mazesolver.solver.VisitStatistics;
+import io.github.apollozhu.mazesolver.view.MazeCanvas;
+
+import javax.swing.*;
+import java.awt.*;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Races two to four solvers on copies of the same maze. Every solver takes
+ * one step per tick of a shared clock, which the playback controls pace,
+ * so how far each one got shows how many steps it needed.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class RacePanel extends PlaybackPanel {
+    private static final MazeSolver.Type[] types = MazeSolver.Type.values();
+    private static final int MIN_LANES = 2, MAX_LANES = 4;
+    // The recursive solver needs a deep stack for big mazes.
+    private static final long LANE_STACK_SIZE = 256L << 20;
+    private final MazeBlock[][] map;
+    private final MazeBlock.Location start, end;
+    private final JCheckBox[] typeCheckBoxes = new JCheckBox[types.length];
+    private final List<Lane> lanes = new ArrayList<>();
+    private final Timer counterTimer = new Timer(100, ignored -> updateCounters());
+    private final AtomicInteger finishers = new AtomicInteger();
+    private JPanel lanesPanel;
+    private volatile Phaser clock;
+
+    public RacePanel(MazeBlock[][] map, MazeBlock.Location start, MazeBlock.Location end) {
+        this.map = map;
+        this.start = start;
+        this.end = end;
+        JPanel typesPanel = new JPanel(new FlowLayout(FlowLayout.LEADING, 8, 8));
+        typesPanel.add(new JLabel("Solvers: "));
+        for (int i = 0; i < types.length; i++) {
+            typesPanel.add(typeCheckBoxes[i] = new JCheckBox(types[i].description()));
+            typeCheckBoxes[i].setSelected(types[i] != MazeSolver.Type.STACK);
+            typeCheckBoxes[i].addActionListener(ignored -> showLanes());
+        }
+        add(typesPanel, BorderLayout.NORTH);
+        showLanes();
+    }
+
+    /**
+     * Shows the race in its own window.
+     */
+    public static void display(MazeBlock[][] map, MazeBlock.Location start, MazeBlock.Location end) {
+        JFrame frame = new JFrame("Race Solvers");
+        RacePanel panel = new RacePanel(map, start, end);
+        frame.setContentPane(panel);
+        frame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        frame.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                panel.terminate();
+            }
+        });
+        Dimension size = Toolkit.getDefaultToolkit().getScreenSize();
+        frame.setSize(size.width * 3 / 4, size.height * 3 / 4);
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+    }
+
+    @Override
+    protected Component getCenterComponent() {
+        if (lanesPanel == null) lanesPanel = new JPanel(new GridLayout(1, 0, 8, 8));
+        return lanesPanel;
+    }
+
+    private List<MazeSolver.Type> getSelectedTypes() {
+        List<MazeSolver.Type> selected = new ArrayList<>();
+        for (int i = 0; i < types.length; i++)
+            if (typeCheckBoxes[i].isSelected()) selected.add(types[i]);
+        return selected;
+    }
+
+    private void showLanes() {
+        List<MazeSolver.Type> selected = getSelectedTypes();
+        lanes.clear();
+        lanesPanel.removeAll();
+        for (MazeSolver.Type type : selected.subList(0, Math.min(selected.size(), MAX_LANES))) {
+            Lane lane = new Lane(type);
+            lanes.add(lane);
+            lanesPanel.add(lane.panel);
+        }
+        ((GridLayout) lanesPanel.getLayout()).setRows(lanes.size() > 2 ? 2 : 1);
+        lanesPanel.revalidate();
+        lanesPanel.repaint();
+        updateCounters();
+    }
+
+    private void updateCounters() {
+        for (Lane lane : lanes) lane.updateLabel();
+    }
+
+    @Override
+    protected void start() {
+        int count = getSelectedTypes().size();
+        if (count < MIN_LANES || count > MAX_LANES) {
+            JOptionPane.showMessageDialog(TopDialog.getDialog(),
+                    "Pick two to four solvers to race.",
+                    "Failed!", JOptionPane.ERROR_MESSAGE);
+            terminate();
+            return;
+        }
+        // The thread running this is the clock, so pausing it pauses every solver.
+        Phaser clock = new Phaser(1);
+        try {
+            SwingUtilities.invokeAndWait(() -> {
+                for (JCheckBox checkBox : typeCheckBoxes) checkBox.setEnabled(false);
+                showLanes();
+                counterTimer.start();
+            });
+        } catch (InterruptedException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+        finishers.set(0);
+        this.clock = clock;
+        for (Lane lane : lanes) lane.start(clock);
+        while (clock.getRegisteredParties() > 1 && !clock.isTerminated()) {
+            sleep();
+            clock.arriveAndAwaitAdvance();
+        }
+        terminate();
+    }
+
+    @Override
+    protected void terminate() {
+        Phaser clock = this.clock;
+        if (clock != null) clock.forceTermination();
+        SwingUtilities.invokeLater(() -> {
+            counterTimer.stop();
+            updateCounters();
+            for (JCheckBox checkBox : typeCheckBoxes) checkBox.setEnabled(true);
+        });
+        super.terminate();
+    }
+
+    private class Lane implements MazeSolver.MSEventListener<Object> {
+        private final MazeSolver.Type type;
+        private final MazeBlock[][] copy = new MazeBlock[map.length][];
+        private final MazeCanvas canvas;
+        private final VisitStatistics statistics = new VisitStatistics();
+        private final JLabel label = new JLabel(" ", SwingConstants.CENTER);
+        private final JPanel panel = new JPanel(new BorderLayout());
+        private Phaser clock;
+        private volatile int steps, rank, pathLength = -1;
+        private volatile String result;
+
+        Lane(MazeSolver.Type type) {
+            this.type = type;
+            for (int i = 0; i < map.length; i++) copy[i] = map[i].clone();
+            Maze.clear(copy);
+            canvas = new MazeCanvas(copy);
+            canvas.setStart(start);
+            canvas.setTarget(end);
+            panel.add(label, BorderLayout.NORTH);
+            panel.add(canvas, BorderLayout.CENTER);
+            panel.setBorder(BorderFactory.createEtchedBorder());
+        }
+
+        void start(Phaser clock) {
+            this.clock = clock;
+            clock.register();
+            Thread thread = new Thread(null, this::run, type.description(), LANE_STACK_SIZE);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void run() {
+            MazeSolver solver = type.init();
+            solver.addEventListener(canvas);
+            solver.addEventListener(statistics);
+            solver.addEventListener(this);
+            try {
+                boolean hasPath = solver.start(copy, start.getR(), start.getC(), end.getR(), end.getC());
+                if (hasPath) pathLength = MazeSolution.of(copy, start, end, true, false).getLength();
+                result = hasPath ? "found a path" : "no path";
+                rank = finishers.incrementAndGet();
+            } catch (Terminated e) {
+                result = "terminated";
+            } catch (Throwable t) {
+                Logger.getGlobal().log(Level.WARNING, type.description() + " failed in race", t);
+                result = "failed";
+            } finally {
+                clock.arriveAndDeregister();
+            }
+        }
+
+        private void step() {
+            steps++;
+            if (clock.arriveAndAwaitAdvance() < 0) throw new Terminated();
+        }
+
+        void updateLabel() {
+            String result = this.result;
+            int path = pathLength;
+            if (path < 0 && result == null) path = countPathBlocks();
+            String text = type.description() + " - steps: " + steps
+                    + ", expanded: " + statistics.getTotalTryouts()
+                    + ", path: " + (path < 0 ? "-" : path);
+            if (result != null) text += " (" + (rank > 0 ? "#" + rank + ", " : "") + result + ")";
+            label.setText(text);
+        }
+
+        // Blocks marked as path so far, since the real length is only known at the end.
+        private int countPathBlocks() {
+            int count = 0;
+            for (MazeBlock[] row : copy)
+                for (MazeBlock block : row)
+                    if (block == MazeBlock.PATH) count++;
+            return count;
+        }
+
+        @Override
+        public void started(int r, int c, int tR, int tC, MazeBlock[][] map) {
+            step();
+        }
+
+        @Override
+        public void tryout(int r, int c, MazeSolver.Direction direction, Object path, MazeBlock[][] map) {
+            step();
+        }
+
+        @Override
+        public void found(int tR, int tC, Object path, MazeBlock[][] map) {
+            step();
+        }
+
+        @Override
+        public void failed(int r, int c, Object path, MazeBlock[][] map) {
+            step();
+        }
+
+        @Override
+        public void ended(boolean hasPath, MazeBlock[][] map) {
+        }
+    }
+
+    private static class Terminated extends RuntimeException {
+        Terminated() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package io.github.apollozhu.mazesolver.fx;
+
+import io.github.apollozhu.mazesolver.model.Maze;
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.model.MazeFile;
+import io.github.apollozhu.mazesolver.solver.MazeSolver;
+import io.github.apollozhu.mazesolver.utilities.StepPacer;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.util.StringConverter;
+
+import java.io.File;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Generates and solves mazes in a {@link MazeView}, with the same controls
+ * as the Swing {@link io.github.apollozhu.mazesolver.controller.MazePanel}.
+ * Solving happens on its own thread, which is paced by the speed slider
+ * and can be paused or terminated between any two steps.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class MazePane extends BorderPane {
+    private static final int MAX = 1000;
+    private static final MazeSolver.Type[] types = MazeSolver.Type.values();
+    private final TextField rowTextField = new TextField(), columnTextField = new TextField();
+    private final TextField percentageTextField = new TextField();
+    private final CheckBox solvableCheckBox = new CheckBox("Solvable");
+    private final ComboBox<String> solverComboBox = new ComboBox<>();
+    private final HBox mapGenerationControls;
+    private final Button start = new Button("Start");
+    private final Button pauseResume = new Button("Pause");
+    private final Slider slider = new Slider(0, MAX, 10);
+    private final StepPacer pacer = new StepPacer(stepsPerSecond(slider.getValue()));
+    private final Object lock = new Object();
+    private final MazeView view;
+    private MazeBlock[][] map = Maze.decodeLauMaze();
+    private MazeBlock.Location startLocation, endLocation;
+    private double pathPercentage = 0.7;
+    // The solve in progress, and whether it's paused, guarded by lock.
+    // A solving thread that's no longer this one has been terminated.
+    private Thread thread;
+    private boolean isPaused;
+
+    public MazePane() {
+        view = new MazeView(map);
+        setCenter(view);
+        // Map Generation
+        Button open = new Button("Open...");
+        open.setOnAction(e -> openMaze());
+        Button regenerate = new Button("Re-Generate");
+        regenerate.setOnAction(e -> regenerateMap());
+        rowTextField.setOnAction(e -> regenerateMap());
+        columnTextField.setOnAction(e -> regenerateMap());
+        percentageTextField.setOnAction(e -> regenerateMap());
+        rowTextField.setPrefColumnCount(4);
+        columnTextField.setPrefColumnCount(4);
+        percentageTextField.setPrefColumnCount(4);
+        percentageTextField.setText("" + pathPercentage);
+        solvableCheckBox.setSelected(true);
+        for (MazeSolver.Type type : types) solverComboBox.getItems().add(type.description());
+        solverComboBox.getSelectionModel().select(MazeSolver.Type.BFS.ordinal());
+        mapGenerationControls = new HBox(8, open,
+                new Label("Row:"), rowTextField, new Label("Column:"), columnTextField,
+                new Label("Path Percentage:"), percentageTextField, solvableCheckBox, regenerate,
+                new Label("Solver:"), solverComboBox);
+        mapGenerationControls.setAlignment(Pos.CENTER_LEFT);
+        mapGenerationControls.setPadding(new Insets(8));
+        setTop(mapGenerationControls);
+        // Playback
+        start.setMaxWidth(Double.MAX_VALUE);
+        start.setOnAction(e -> {
+            if (getThread() == null) start();
+            else terminate();
+        });
+        pauseResume.setMaxWidth(Double.MAX_VALUE);
+        pauseResume.setDisable(true);
+        pauseResume.setOnAction(e -> {
+            if (isPaused()) resume();
+            else pause();
+        });
+        slider.setOrientation(Orientation.VERTICAL);
+        slider.setMajorTickUnit(50);
+        slider.setShowTickLabels(true);
+        slider.setLabelFormatter(new StringConverter<Double>() {
+            @Override
+            public String toString(Double value) {
+                switch (value.intValue()) {
+                    case 0:
+                        return "Pause";
+                    case 50:
+                        return "Slow";
+                    case 100:
+                        return "Normal";
+                    case 800:
+                        return "Fast";
+                    case MAX:
+                        return "Non Stop";
+                    default:
+                        return "";
+                }
+            }
+
+            @Override
+            public Double fromString(String string) {
+                return null;
+            }
+        });
+        slider.valueProperty().addListener((observable, oldValue, newValue) -> {
+            pacer.setStepsPerSecond(stepsPerSecond(newValue.doubleValue()));
+            if (getThread() == null) return;
+            if (oldValue.doubleValue() == 0 && newValue.doubleValue() != 0) resume();
+            if (newValue.doubleValue() == 0 && oldValue.doubleValue() != 0) pause();
+        });
+        VBox.setVgrow(slider, Priority.ALWAYS);
+        VBox controls = new VBox(8, start, pauseResume, slider);
+        controls.setAlignment(Pos.TOP_CENTER);
+        controls.setPadding(new Insets(8));
+        setRight(controls);
+        setMap(map);
+    }
+
+    // Same speeds as the Swing slider, 40 steps per second at Normal.
+    private static double stepsPerSecond(double value) {
+        if (value == MAX) return Double.POSITIVE_INFINITY;
+        return Math.max(value, 10) * 0.4;
+    }
+
+    private void openMaze() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Open Maze");
+        File file = chooser.showOpenDialog(getScene().getWindow());
+        if (file == null) return;
+        MazeFile.Info info = MazeFile.read(file.toPath());
+        if (info == null || !setMap(info.getMap())) {
+            new Alert(Alert.AlertType.WARNING, "Unable to read " + file.getName(), ButtonType.OK).showAndWait();
+            return;
+        }
+        setStart(info.getStart());
+        setEnd(info.getEnd());
+    }
+
+    private void regenerateMap() {
+        int newR = map.length, newC = map[0].length;
+        try {
+            newR = Math.max(Integer.parseInt(rowTextField.getText()), 0);
+        } catch (Exception e) {
+        }
+        try {
+            newC = Math.max(Integer.parseInt(columnTextField.getText()), 0);
+        } catch (Exception e) {
+        }
+        try {
+            pathPercentage = Math.max(Math.min(Double.parseDouble(percentageTextField.getText()), 1), 0);
+        } catch (Exception e) {
+        }
+        percentageTextField.setText("" + pathPercentage);
+        Random random = new Random();
+        setMap(solvableCheckBox.isSelected()
+                ? Maze.generateSolvable(newR, newC, pathPercentage, 0, 0, newR - 1, newC - 1, random)
+                : Maze.generate(newR, newC, pathPercentage, random));
+    }
+
+    private boolean setMap(MazeBlock[][] newMap) {
+        if (newMap == null || newMap.length == 0 || newMap[0].length == 0) return false;
+        map = newMap.clone();
+        rowTextField.setText("" + map.length);
+        columnTextField.setText("" + map[0].length);
+        view.setMap(map);
+        map[0][0] = map[map.length - 1][map[0].length - 1] = MazeBlock.EMPTY;
+        setStart(new MazeBlock.Location(0, 0));
+        setEnd(new MazeBlock.Location(map.length - 1, map[0].length - 1));
+        return true;
+    }
+
+    private void setStart(MazeBlock.Location start) {
+        map[start.getR()][start.getC()] = MazeBlock.EMPTY;
+        view.setStart(startLocation = start);
+    }
+
+    private void setEnd(MazeBlock.Location end) {
+        map[end.getR()][end.getC()] = MazeBlock.EMPTY;
+        view.setTarget(endLocation = end);
+    }
+
+    private void start() {
+        mapGenerationControls.setDisable(true);
+        start.setText("Terminate");
+        pauseResume.setText("Pause");
+        pauseResume.setDisable(false);
+        pacer.reset();
+        Maze.clear(map);
+        view.setMap(map);
+        MazeSolver solver = types[solverComboBox.getSelectionModel().getSelectedIndex()].init();
+        MazeSolver.MSEventListener<Object> pacing = new MazeSolver.MSEventListener<Object>() {
+            @Override
+            public void started(int r, int c, int tR, int tC, MazeBlock[][] map) {
+                step();
+            }
+
+            @Override
+            public void tryout(int r, int c, MazeSolver.Direction direction, Object path, MazeBlock[][] map) {
+                step();
+            }
+
+            @Override
+            public void found(int tR, int tC, Object path, MazeBlock[][] map) {
+                step();
+            }
+
+            @Override
+            public void failed(int r, int c, Object path, MazeBlock[][] map) {
+                step();
+            }
+
+            @Override
+            public void ended(boolean hasPath, MazeBlock[][] map) {
+            }
+        };
+        solver.addEventListener(view);
+        solver.addEventListener(pacing);
+        MazeBlock.Location from = startLocation, to = endLocation;
+        Thread thread = new Thread(() -> {
+            Thread current = Thread.currentThread();
+            try {
+                boolean hasPath = solver.start(map, from.getR(), from.getC(), to.getR(), to.getC());
+                Platform.runLater(() -> {
+                    if (!finish(current)) return;
+                    new Alert(Alert.AlertType.INFORMATION,
+                            hasPath ? "It is doable." : "Can do better.", ButtonType.OK).show();
+                });
+            } catch (Terminated ignored) {
+            } catch (Throwable t) {
+                Logger.getGlobal().log(Level.WARNING, "Failed to solve", t);
+                Platform.runLater(() -> {
+                    if (!finish(current)) return;
+                    new Alert(Alert.AlertType.WARNING,
+                            "Something went wrong. Please see system log for details.", ButtonType.OK).show();
+                });
+            }
+        }, "Maze Solver");
+        thread.setDaemon(true);
+        synchronized (lock) {
+            this.thread = thread;
+            isPaused = false;
+        }
+        thread.start();
+    }
+
+    /**
+     * Waits for the slider, and unwinds the solver once terminated.
+     */
+    private void step() {
+        Thread current = Thread.currentThread();
+        synchronized (lock) {
+            while (isPaused && thread == current)
+                try {
+                    lock.wait();
+                } catch (InterruptedException ignored) {
+                }
+            if (thread != current) throw new Terminated();
+        }
+        pacer.pace(1);
+    }
+
+    private Thread getThread() {
+        synchronized (lock) {
+            return thread;
+        }
+    }
+
+    private boolean isPaused() {
+        synchronized (lock) {
+            return isPaused;
+        }
+    }
+
+    private void pause() {
+        pauseResume.setText("Resume");
+        synchronized (lock) {
+            isPaused = true;
+        }
+    }
+
+    private void resume() {
+        if (slider.getValue() == 0) slider.setValue(100);
+        pauseResume.setText("Pause");
+        pacer.reset();
+        synchronized (lock) {
+            isPaused = false;
+            lock.notifyAll();
+        }
+    }
+
+    private void terminate() {
+        finish(getThread());
+    }
+
+    /**
+     * @return false if that solve was already terminated.
+     */
+    private boolean finish(Thread solving) {
+        synchronized (lock) {
+            if (solving == null || thread != solving) return false;
+            thread = null;
+            lock.notifyAll();
+        }
+        // Wakes the pacer up, so it stops at the next step.
+        solving.interrupt();
+        mapGenerationControls.setDisable(false);
+        start.setText("Start");
+        pauseResume.setText("Pause");
+        pauseResume.setDisable(true);
+        return true;
+    }
+
+    private static class Terminated extends RuntimeException {
+        Terminated() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package io.github.apollozhu.mazesolver.fx;
+
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.solver.MazeSolver;
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+
+/**
+ * Draws a maze straight onto a JavaFX canvas, looking the same as the Swing
+ * {@link io.github.apollozhu.mazesolver.view.MazeCanvas}. Solver events only
+ * record which blocks changed, from whichever thread solves, and everything
+ * changed since the last pulse is drawn once in the next one.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class MazeView extends Pane implements MazeSolver.MSEventListener {
+    private static final Color BACKGROUND = Color.rgb(238, 238, 238);
+    private static final Color DIFF_COLOR_NEW = Color.rgb(102, 204, 255);
+    private static final Color COMMON_COLOR_FOUND = Color.rgb(29, 135, 17);
+    private static final Color COMMON_COLOR_NORMAL = Color.BLUE;
+    private static final Color COMMON_COLOR_FAILED = Color.ORANGE;
+    private static final Color MARKER_COLOR = Color.RED;
+    // Below this many pixels per block, blocks are plain colors like the Swing overview.
+    private static final int DETAIL_SIDE = 4;
+
+    private final Canvas canvas = new Canvas();
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            drawChanges();
+        }
+    };
+    // Blocks changed since the last pulse, guarded by this.
+    private int dirtyFromR, dirtyFromC, dirtyToR, dirtyToC;
+    private boolean isDirty, isAllDirty = true;
+    private volatile MazeBlock[][] map;
+    private volatile MazeBlock.Location start, end;
+    private volatile Color commonColor = COMMON_COLOR_NORMAL;
+    private volatile Trial diff;
+    // The block a trial heads for, which the solver marks after telling us.
+    private int pendingR = -1, pendingC = -1;
+    private int side, originX, originY;
+
+    public MazeView(MazeBlock[][] map) {
+        this.map = map;
+        getChildren().add(canvas);
+        setMinSize(0, 0);
+        timer.start();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        canvas.setWidth(getWidth());
+        canvas.setHeight(getHeight());
+        markAllDirty();
+    }
+
+    public void setMap(MazeBlock[][] map) {
+        this.map = map;
+        diff = null;
+        commonColor = COMMON_COLOR_NORMAL;
+        markAllDirty();
+    }
+
+    public void setStart(MazeBlock.Location start) {
+        this.start = start;
+        markAllDirty();
+    }
+
+    public void setTarget(MazeBlock.Location end) {
+        this.end = end;
+        markAllDirty();
+    }
+
+    /**
+     * @return the block at a point in this view, or null if there's none.
+     */
+    public MazeBlock.Location getLoc(double x, double y) {
+        MazeBlock[][] map = this.map;
+        if (side == 0 || map == null || map.length == 0) return null;
+        int r = (int) Math.floor((y - originY) / side), c = (int) Math.floor((x - originX) / side);
+        if (r < 0 || c < 0 || r >= map.length || c >= map[0].length) return null;
+        return new MazeBlock.Location(r, c);
+    }
+
+    private synchronized void markAllDirty() {
+        isAllDirty = true;
+    }
+
+    // Blocks around it are included, since connectors and arrows reach into them.
+    private synchronized void markDirty(int r, int c) {
+        if (r < 0 || c < 0) return;
+        if (!isDirty) {
+            dirtyFromR = dirtyToR = r;
+            dirtyFromC = dirtyToC = c;
+            isDirty = true;
+        }
+        dirtyFromR = Math.min(dirtyFromR, r - 1);
+        dirtyFromC = Math.min(dirtyFromC, c - 1);
+        dirtyToR = Math.max(dirtyToR, r + 1);
+        dirtyToC = Math.max(dirtyToC, c + 1);
+    }
+
+    private void drawChanges() {
+        int fromR, fromC, toR, toC;
+        boolean isAll;
+        synchronized (this) {
+            if (!isDirty && !isAllDirty) return;
+            fromR = dirtyFromR;
+            fromC = dirtyFromC;
+            toR = dirtyToR;
+            toC = dirtyToC;
+            isAll = isAllDirty;
+            isDirty = isAllDirty = false;
+        }
+        MazeBlock[][] map = this.map;
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        if (isAll) {
+            g.setFill(BACKGROUND);
+            g.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            if (map == null || map.length == 0 || map[0].length == 0) return;
+            side = (int) Math.max(Math.min(canvas.getWidth() / map[0].length, canvas.getHeight() / map.length), 1);
+            originX = (int) Math.max(canvas.getWidth() - side * map[0].length, 0) / 2;
+            originY = (int) Math.max(canvas.getHeight() - side * map.length, 0) / 2;
+            draw(g, map, 0, 0, map.length - 1, map[0].length - 1);
+            return;
+        }
+        if (map == null || map.length == 0 || map[0].length == 0) return;
+        fromR = Math.max(fromR, 0);
+        fromC = Math.max(fromC, 0);
+        toR = Math.min(toR, map.length - 1);
+        toC = Math.min(toC, map[0].length - 1);
+        if (fromR > toR || fromC > toC) return;
+        g.save();
+        g.beginPath();
+        g.rect(originX + side * fromC, originY + side * fromR,
+                side * (toC - fromC + 1) + 1, side * (toR - fromR + 1) + 1);
+        g.clip();
+        g.setFill(BACKGROUND);
+        g.fillRect(originX + side * fromC, originY + side * fromR,
+                side * (toC - fromC + 1) + 1, side * (toR - fromR + 1) + 1);
+        // Strokes from the blocks just outside can cover the edges.
+        draw(g, map, Math.max(fromR - 1, 0), Math.max(fromC - 1, 0),
+                Math.min(toR + 1, map.length - 1), Math.min(toC + 1, map[0].length - 1));
+        g.restore();
+    }
+
+    private void draw(GraphicsContext g, MazeBlock[][] map, int fromR, int fromC, int toR, int toC) {
+        if (side < DETAIL_SIDE) {
+            for (int i = fromR; i <= toR; i++)
+                for (int j = fromC; j <= toC; j++) {
+                    g.setFill(colorOf(map, i, j));
+                    g.fillRect(originX + side * j, originY + side * i, side, side);
+                }
+            return;
+        }
+        double thick = Math.max(side / 5, 1), thin = Math.max(side / 10, 1);
+        g.setLineCap(StrokeLineCap.ROUND);
+        g.setLineJoin(StrokeLineJoin.ROUND);
+        // Grid
+        g.setStroke(Color.GRAY);
+        g.setLineWidth(1);
+        double left = originX + side * fromC + 0.5, right = originX + side * (toC + 1) + 0.5;
+        double top = originY + side * fromR + 0.5, bottom = originY + side * (toR + 1) + 0.5;
+        for (int i = fromR; i <= toR + 1; i++)
+            g.strokeLine(left, originY + side * i + 0.5, right, originY + side * i + 0.5);
+        for (int j = fromC; j <= toC + 1; j++)
+            g.strokeLine(originX + side * j + 0.5, top, originX + side * j + 0.5, bottom);
+        // Walls
+        g.setStroke(Color.BLACK);
+        g.setLineWidth(thick);
+        for (int i = fromR; i <= toR; i++)
+            for (int j = fromC; j <= toC; j++)
+                if (map[i][j] == MazeBlock.WALL)
+                    drawConnectors(g, maskOf(map, i, j, MazeBlock.WALL, false),
+                            originX + side * j, originY + side * i, side);
+        // Solve
+        MazeBlock.Location start = this.start, end = this.end;
+        Color commonColor = this.commonColor;
+        for (int i = fromR; i <= toR; i++)
+            for (int j = fromC; j <= toC; j++) {
+                int x = originX + side * j, y = originY + side * i;
+                boolean isStart = start != null && i == start.getR() && j == start.getC();
+                boolean isEnd = end != null && i == end.getR() && j == end.getC();
+                if (isStart) {
+                    g.setStroke(MARKER_COLOR);
+                    g.setLineWidth(thick);
+                    g.strokeOval(x + side / 5, y + side / 5, side * 3 / 5, side * 3 / 5);
+                }
+                if (isEnd) {
+                    g.setStroke(MARKER_COLOR);
+                    g.setLineWidth(thick);
+                    g.strokeLine(x + side / 5, y + side / 5, x + side * 4 / 5, y + side * 4 / 5);
+                    g.strokeLine(x + side * 4 / 5, y + side / 5, x + side / 5, y + side * 4 / 5);
+                } else if (map[i][j] == MazeBlock.VISITED) {
+                    g.setStroke(COMMON_COLOR_FAILED);
+                    g.setLineWidth(thick);
+                    g.strokeLine(x + side / 2, y + side / 5, x + side * 4 / 5, y + side * 4 / 5);
+                    g.strokeLine(x + side * 4 / 5, y + side * 4 / 5, x + side / 5, y + side * 4 / 5);
+                    g.strokeLine(x + side / 5, y + side * 4 / 5, x + side / 2, y + side / 5);
+                } else if (map[i][j] == MazeBlock.PATH) {
+                    g.setStroke(commonColor);
+                    g.setLineWidth(thin);
+                    drawConnectors(g, maskOf(map, i, j, MazeBlock.PATH, true), x, y, side);
+                }
+            }
+        Trial diff = this.diff;
+        if (diff != null && diff.r >= fromR && diff.r <= toR && diff.c >= fromC && diff.c <= toC) {
+            g.setStroke(DIFF_COLOR_NEW);
+            g.setLineWidth(thin);
+            drawArrow(g, diff.direction, originX + side * diff.c, originY + side * diff.r, side);
+        }
+    }
+
+    private Color colorOf(MazeBlock[][] map, int r, int c) {
+        MazeBlock.Location start = this.start, end = this.end;
+        if (start != null && r == start.getR() && c == start.getC()
+                || end != null && r == end.getR() && c == end.getC()) return MARKER_COLOR;
+        switch (map[r][c]) {
+            case WALL:
+                return Color.BLACK;
+            case VISITED:
+                return COMMON_COLOR_FAILED;
+            case PATH:
+                return commonColor;
+            default:
+                return BACKGROUND;
+        }
+    }
+
+    /**
+     * @param isOrthogonal true for the block itself and the four sides,
+     *                     false for the eight blocks around it.
+     */
+    private static int maskOf(MazeBlock[][] map, int r, int c, MazeBlock block, boolean isOrthogonal) {
+        int mask = 0;
+        for (int i = r - 1, k = 0; i <= r + 1; i++)
+            for (int j = c - 1; j <= c + 1; j++, k++)
+                if ((isOrthogonal ? i == r || j == c : i != r || j != c) && get(map, i, j) == block)
+                    mask |= 1 << k;
+        return mask;
+    }
+
+    private static MazeBlock get(MazeBlock[][] map, int r, int c) {
+        if (r < 0 || c < 0 || r >= map.length || c >= map[r].length) return MazeBlock.WALL;
+        return map[r][c];
+    }
+
+    /**
+     * Draws lines from the center to each neighbor in the mask,
+     * or a diamond if there are none.
+     *
+     * @param mask bit 3 * (i - r + 1) + (j - c + 1) is set for a neighbor at (i, j).
+     */
+    private static void drawConnectors(GraphicsContext g, int mask, int x, int y, int side) {
+        int centerX = x + side / 2;
+        int centerY = y + side / 2;
+        for (int k = 0; k < 9; k++)
+            if ((mask & 1 << k) != 0) {
+                int vX = k % 3, vY = k / 3;
+                int lX = vX == 0 ? x : vX == 1 ? centerX : x + side;
+                int lY = vY == 0 ? y : vY == 1 ? centerY : y + side;
+                g.strokeLine(lX, lY, centerX, centerY);
+            }
+        if (mask != 0) return;
+        g.strokeLine(x, centerY, centerX, y);
+        g.strokeLine(centerX, y, x + side, centerY);
+        g.strokeLine(x + side, centerY, centerX, y + side);
+        g.strokeLine(centerX, y + side, x, centerY);
+    }
+
+    private static void drawArrow(GraphicsContext g, MazeSolver.Direction direction, int x, int y, int side) {
+        if (direction == MazeSolver.Direction.NONE) return;
+        int headX = x + side / 2 + direction.dy() * side;
+        int headY = y + side / 2 + direction.dx() * side;
+        g.strokeLine(x + side / 2, y + side / 2, headX, headY);
+        // Both barbs point back along the arrow.
+        int d = side / 5, backX = -direction.dy() * d, backY = -direction.dx() * d;
+        g.strokeLine(headX, headY, headX + backX + backY, headY + backY + backX);
+        g.strokeLine(headX, headY, headX + backX - backY, headY + backY - backX);
+    }
+
+    @Override
+    public void started(int r, int c, int tR, int tC, MazeBlock[][] map) {
+        start = new MazeBlock.Location(r, c);
+        end = new MazeBlock.Location(tR, tC);
+        pendingR = pendingC = -1;
+        setMap(map);
+    }
+
+    @Override
+    public void tryout(int r, int c, MazeSolver.Direction direction, Object path, MazeBlock[][] map) {
+        Trial last = diff;
+        diff = new Trial(r, c, direction);
+        if (last != null) markDirty(last.r, last.c);
+        markDirty(r, c);
+        markDirty(pendingR, pendingC);
+        pendingR = r + direction.dx();
+        pendingC = c + direction.dy();
+    }
+
+    @Override
+    public void found(int tR, int tC, Object path, MazeBlock[][] map) {
+        commonColor = COMMON_COLOR_FOUND;
+        diff = null;
+        markAllDirty();
+    }
+
+    // The Swing canvas shows no arrow once a block has failed either.
+    @Override
+    public void failed(int r, int c, Object path, MazeBlock[][] map) {
+        Trial last = diff;
+        diff = null;
+        if (last != null) markDirty(last.r, last.c);
+        markDirty(r, c);
+        markDirty(pendingR, pendingC);
+    }
+
+    @Override
+    public void ended(boolean hasPath, MazeBlock[][] map) {
+        commonColor = hasPath ? COMMON_COLOR_FOUND : COMMON_COLOR_FAILED;
+        diff = null;
+        markAllDirty();
+    }
+
+    private static class Trial {
+        private final int r, c;
+        private final MazeSolver.Direction direction;
+
+        Trial(int r, int c, MazeSolver.Direction direction) {
+            this.r = r;
+            this.c = c;
+            this.direction = direction;
+        }
+    }
+}
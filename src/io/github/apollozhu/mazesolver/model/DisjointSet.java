@@ -0,0 +1,59 @@
+package io.github.apollozhu.mazesolver.model;
+
+import java.util.Arrays;
+
+/**
+ * Union-find over a fixed number of entries, reused by clearing it.
+ * A negative entry marks a root and holds the size of its set.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+class DisjointSet {
+    private final int[] parent;
+
+    DisjointSet(int count) {
+        parent = new int[count];
+        Arrays.fill(parent, -1);
+    }
+
+    void clear() {
+        Arrays.fill(parent, -1);
+    }
+
+    int find(int i) {
+        int root = i;
+        while (parent[root] >= 0) root = parent[root];
+        while (parent[i] >= 0) {
+            int next = parent[i];
+            parent[i] = root;
+            i = next;
+        }
+        return root;
+    }
+
+    void union(int a, int b) {
+        a = find(a);
+        b = find(b);
+        if (a == b) return;
+        if (parent[a] > parent[b]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        parent[a] += parent[b];
+        parent[b] = a;
+    }
+
+    /**
+     * Same as union, but faster for an entry that's still on its own.
+     */
+    void attach(int single, int to) {
+        int root = find(to);
+        parent[root]--;
+        parent[single] = root;
+    }
+
+    boolean isConnected(int a, int b) {
+        return find(a) == find(b);
+    }
+}
@@ -1,5 +1,8 @@
 package io.github.apollozhu.mazesolver.model;
 
+import java.util.Arrays;
+import java.util.Random;
+
 /**
  * @author ApolloZhu, Pd. 1
  */
@@ -16,6 +19,8 @@ public enum Maze {
             {1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0},
             {1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1}
     };
+    // Up, right, down, left
+    private static final int[] DR = {-1, 0, 1, 0}, DC = {0, 1, 0, -1};
 
     public static MazeBlock[][] decodeLauMaze() {
         return MazeCoder.decode(grid);
@@ -28,11 +33,127 @@ public enum Maze {
     }
 
     public static MazeBlock[][] generate(int r, int c, double emptyPossibility) {
+        return generate(r, c, emptyPossibility, new Random());
+    }
+
+    public static MazeBlock[][] generate(int r, int c, double emptyPossibility, Random random) {
         emptyPossibility = Math.max(Math.min(1, emptyPossibility), 0);
         MazeBlock[][] map = new MazeBlock[r][c];
         for (int i = 0; i < r; i++)
             for (int j = 0; j < c; j++)
-                map[i][j] = Math.random() < emptyPossibility ? MazeBlock.EMPTY : MazeBlock.WALL;
+                map[i][j] = random.nextDouble() < emptyPossibility ? MazeBlock.EMPTY : MazeBlock.WALL;
+        return map;
+    }
+
+    /**
+     * Generates a maze that always has a path between
+     * the top left and the bottom right corner.
+     */
+    public static MazeBlock[][] generateSolvable(int r, int c, double emptyPossibility) {
+        return generateSolvable(r, c, emptyPossibility, 0, 0, r - 1, c - 1, new Random());
+    }
+
+    /**
+     * Generates a maze row by row while tracking connected empty blocks
+     * of the last two rows only, then carves the fewest walls needed if start and target ended up apart.
+     *
+     * @throws IllegalArgumentException if start or target is outside the maze.
+     */
+    public static MazeBlock[][] generateSolvable(int r, int c, double emptyPossibility,
+                                                 int sR, int sC, int tR, int tC, Random random) {
+        if (r <= 0 || c <= 0) return new MazeBlock[Math.max(r, 0)][Math.max(c, 0)];
+        if (sR < 0 || sC < 0 || sR >= r || sC >= c || tR < 0 || tC < 0 || tR >= r || tC >= c)
+            throw new IllegalArgumentException("Start (" + sR + ", " + sC + ") and target (" + tR + ", " + tC
+                    + ") must be inside the " + r + "x" + c + " maze");
+        emptyPossibility = Math.max(Math.min(1, emptyPossibility), 0);
+        MazeBlock[][] map = new MazeBlock[r][c];
+        // Only two rows are tracked: the last one in [0, c) and this one in [c, 2c).
+        // Start and target have their own entries, so their components outlive the rows.
+        int startSet = 2 * c, targetSet = 2 * c + 1;
+        DisjointSet window = new DisjointSet(2 * c + 2);
+        int[] roots = new int[c], label = new int[2 * c + 2];
+        Arrays.fill(label, -1);
+        boolean isConnected = false;
+        for (int i = 0; i < r; i++) {
+            for (int j = 0; j < c; j++) {
+                boolean isEmpty = i == sR && j == sC || i == tR && j == tC
+                        || random.nextDouble() < emptyPossibility;
+                map[i][j] = isEmpty ? MazeBlock.EMPTY : MazeBlock.WALL;
+                if (!isEmpty || isConnected) continue;
+                if (j > 0 && map[i][j - 1] == MazeBlock.EMPTY) window.attach(c + j, c + j - 1);
+                if (i > 0 && map[i - 1][j] == MazeBlock.EMPTY) window.union(c + j, j);
+                if (i == sR && j == sC) window.union(c + j, startSet);
+                if (i == tR && j == tC) window.union(c + j, targetSet);
+            }
+            if (!isConnected) isConnected = window.isConnected(startSet, targetSet);
+            if (isConnected) continue;
+            shiftRow(window, map[i], roots, label);
+        }
+        if (!isConnected) carveCorridor(map, sR, sC, tR, tC);
         return map;
     }
+
+    // Makes this row the last one, keeping which of its blocks are connected
+    // to each other, to the start and to the target.
+    private static void shiftRow(DisjointSet window, MazeBlock[] row, int[] roots, int[] label) {
+        int c = row.length, startSet = 2 * c, targetSet = 2 * c + 1;
+        int startRoot = window.find(startSet), targetRoot = window.find(targetSet);
+        for (int j = 0; j < c; j++) roots[j] = row[j] == MazeBlock.EMPTY ? window.find(c + j) : -1;
+        window.clear();
+        label[startRoot] = startSet;
+        label[targetRoot] = targetSet;
+        for (int j = 0; j < c; j++) {
+            if (roots[j] < 0) continue;
+            if (label[roots[j]] < 0) label[roots[j]] = j;
+            else window.attach(j, label[roots[j]]);
+        }
+        label[startRoot] = label[targetRoot] = -1;
+        for (int j = 0; j < c; j++) if (roots[j] >= 0) label[roots[j]] = -1;
+    }
+
+    // 0-1 BFS where stepping onto a wall costs one, so the corridor
+    // found removes as few walls as possible.
+    private static void carveCorridor(MazeBlock[][] map, int sR, int sC, int tR, int tC) {
+        int r = map.length, c = map[0].length, n = r * c;
+        int[] cost = new int[n];
+        byte[] from = new byte[n];
+        Arrays.fill(cost, Integer.MAX_VALUE);
+        // Every cell is queued at most twice, once per possible cost.
+        int[] deque = new int[2 * n];
+        int head = 0, size = 0;
+        int source = sR * c + sC, target = tR * c + tC;
+        cost[source] = 0;
+        deque[head] = source;
+        size++;
+        while (size > 0) {
+            int k = deque[head];
+            if (++head == deque.length) head = 0;
+            size--;
+            if (k == target) break;
+            int i = k / c, j = k % c;
+            for (byte d = 0; d < 4; d++) {
+                int nI = i + DR[d], nJ = j + DC[d];
+                if (nI < 0 || nJ < 0 || nI >= r || nJ >= c) continue;
+                int next = nI * c + nJ;
+                int step = map[nI][nJ] == MazeBlock.WALL ? 1 : 0;
+                if (cost[k] + step >= cost[next]) continue;
+                cost[next] = cost[k] + step;
+                from[next] = d;
+                if (step == 0) {
+                    if (--head < 0) head = deque.length - 1;
+                    deque[head] = next;
+                } else {
+                    int tail = head + size;
+                    deque[tail < deque.length ? tail : tail - deque.length] = next;
+                }
+                size++;
+            }
+        }
+        for (int k = target; k != source; ) {
+            int i = k / c, j = k % c;
+            map[i][j] = MazeBlock.EMPTY;
+            byte d = from[k];
+            k = (i - DR[d]) * c + j - DC[d];
+        }
+    }
 }
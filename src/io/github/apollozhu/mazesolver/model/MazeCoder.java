@@ -5,10 +5,10 @@ package io.github.apollozhu.mazesolver.model;
  */
 public enum MazeCoder {
     ;
-    private static final int WALL = 0;
-    private static final int EMPTY = 1;
-    private static final int VISITED = 3;
-    private static final int PATH = 7;
+    static final int WALL = 0;
+    static final int EMPTY = 1;
+    static final int VISITED = 3;
+    static final int PATH = 7;
 
     public static MazeBlock[][] decode(int[][] intMap) {
         return decode(intMap, WALL, EMPTY, VISITED, PATH);
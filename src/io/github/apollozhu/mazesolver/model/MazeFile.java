@@ -1,11 +1,5 @@
 package io.github.apollozhu.mazesolver.model;
 
-import io.github.apollozhu.mazesolver.controller.TopDialog;
-import io.github.apollozhu.mazesolver.utilities.Safely;
-
-import javax.swing.*;
-import javax.swing.filechooser.FileNameExtensionFilter;
-import java.awt.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -15,35 +9,14 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * r c sR sC tR tC HEX
+ * Version 1: r_c_sR_sC_tR_tC.maze containing the walls as a bit set.
+ * Version 2: see {@link MazeFormat}, still named the same way for people to read.
+ * PNG pictures are read through {@link MazeImage}.
+ * Nothing here uses Swing, so command line solves never load it.
  */
 public enum MazeFile {
     ;
 
-    public static boolean saveMaze(Info info) {
-        JFileChooser chooser = new JFileChooser();
-        chooser.setDialogTitle("Save maze document in...");
-        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
-        JDialog parent = TopDialog.getDialog();
-        if (chooser.showSaveDialog(parent) == JFileChooser.APPROVE_OPTION) {
-            String path = MazeFile.write(info, chooser.getSelectedFile().getPath());
-            if (path == null) JOptionPane.showMessageDialog(parent,
-                    "Something went wrong when saving the maze.\n" +
-                            "Please make sure you have selected a folder.",
-                    "Failed!", JOptionPane.ERROR_MESSAGE);
-            else {
-                JOptionPane.showMessageDialog(parent,
-                        "Maze saved to " + path,
-                        "Saved!", JOptionPane.INFORMATION_MESSAGE);
-                Safely.execute(() -> Desktop.getDesktop().browseFileDirectory(Paths.get(path).toFile()));
-                return true;
-            }
-        } else JOptionPane.showMessageDialog(parent,
-                "You didn't choose a directory to save the maze.",
-                "Cancelled!", JOptionPane.WARNING_MESSAGE);
-        return false;
-    }
-
     public static String write(Info info, String directory) {
         if (info == null) return null;
         StringBuilder sb = new StringBuilder();
@@ -56,34 +29,38 @@ public enum MazeFile {
         String fileName = sb.toString();
         Logger.getGlobal().log(Level.INFO, fileName);
 
-        try {
-            Path path = Paths.get(directory, fileName);
-            Logger.getGlobal().log(Level.INFO, path.toString());
-            Files.write(path, toByteArray(info.map));
-            return path.toAbsolutePath().toString();
+        MazeFormat.Header header = new MazeFormat.Header(info.map.length, info.map[0].length,
+                info.start, info.end, info.seed, MazeFormat.Compression.suggest(info.map));
+        Path path = Paths.get(directory, fileName);
+        Logger.getGlobal().log(Level.INFO, path.toString());
+        try (MazeFormat.Writer writer = MazeFormat.Writer.open(path, header)) {
+            for (MazeBlock[] row : info.map) writer.writeRow(row);
         } catch (Throwable e) {
             Logger.getGlobal().log(Level.WARNING, "Failed to save maze", e);
             return null;
         }
+        return path.toAbsolutePath().toString();
     }
 
-    public static Info chooseMaze() {
-        JFileChooser chooser = new JFileChooser();
-        chooser.setDialogTitle("Open maze document");
-        chooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
-        chooser.setFileFilter(new FileNameExtensionFilter("Maze (*.maze)", "maze"));
-        JDialog parent = TopDialog.getDialog();
-        if (chooser.showOpenDialog(parent) == JFileChooser.APPROVE_OPTION) {
-            Info info = MazeFile.read(Paths.get(chooser.getSelectedFile().getAbsolutePath()));
-            return info;
-        }
-        JOptionPane.showMessageDialog(parent,
-                "You didn't choose a maze.",
-                "Cancelled!", JOptionPane.WARNING_MESSAGE);
-        return null;
+    public static boolean isImage(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".png");
+    }
+
+    // Pictures have no start or target, so use the corners like generated mazes.
+    public static Info imageInfo(MazeBlock[][] map) {
+        if (map.length == 0 || map[0].length == 0) return null;
+        return Info.init(map, new MazeBlock.Location(0, 0),
+                new MazeBlock.Location(map.length - 1, map[0].length - 1));
     }
 
     public static Info read(Path file) {
+        if (isImage(file)) try {
+            return imageInfo(MazeImage.read(file));
+        } catch (Exception e) {
+            Logger.getGlobal().log(Level.WARNING, "Failed to read maze image", e);
+            return null;
+        }
+        if (MazeFormat.isMazeFormat(file)) return readFormatted(file);
         try {
             int[] comp = Arrays.stream(file.getFileName().toString()
                     .replace(".maze", "").split("_"))
@@ -97,6 +74,43 @@ public enum MazeFile {
         }
     }
 
+    /**
+     * @return most blocks the file could turn into, told from its name or header
+     * without decoding it, or -1 if it can't be read that far.
+     */
+    public static long cellsOf(Path file) {
+        try {
+            if (isImage(file)) return MazeImage.pixels(file);
+            if (MazeFormat.isMazeFormat(file))
+                try (MazeFormat.Reader reader = MazeFormat.Reader.open(file)) {
+                    return (long) reader.getHeader().getRows() * reader.getHeader().getColumns();
+                }
+            String[] comp = file.getFileName().toString().replace(".maze", "").split("_");
+            return comp.length < 6 ? -1 : (long) Integer.parseUnsignedInt(comp[0]) * Integer.parseUnsignedInt(comp[1]);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static Info readFormatted(Path file) {
+        try (MazeFormat.Reader reader = MazeFormat.Reader.open(file)) {
+            MazeFormat.Header header = reader.getHeader();
+            // Row by row, so a header claiming more than the body has fails at its end instead.
+            MazeBlock[][] map = new MazeBlock[header.getRows()][];
+            for (int i = 0; i < map.length; i++) {
+                MazeBlock[] row = new MazeBlock[header.getColumns()];
+                reader.readRow(row);
+                map[i] = row;
+            }
+            Info info = Info.init(map, header.getStart(), header.getEnd());
+            if (info != null) info.seed = header.getSeed();
+            return info;
+        } catch (Exception e) {
+            Logger.getGlobal().log(Level.WARNING, "Failed to read maze", e);
+            return null;
+        }
+    }
+
     private static boolean isValid(int... comp) {
         return comp.length >= 6 && comp[0] > 0 && comp[1] > 0 &&
                 comp[2] >= 0 && comp[2] < comp[0] &&
@@ -105,16 +119,6 @@ public enum MazeFile {
                 comp[5] >= 0 && comp[5] < comp[1];
     }
 
-    private static byte[] toByteArray(MazeBlock[][] map) {
-        int r = map.length, c = map[0].length;
-        BitSet set = new BitSet(r * c);
-        for (int i = 0, k = 0; i < r; i++)
-            for (int j = 0; j < c; j++, k++)
-                if (map[i][j] == MazeBlock.WALL)
-                    set.flip(k);
-        return set.toByteArray();
-    }
-
     private static MazeBlock[][] fromByteArray(byte[] bytes, int r, int c) {
         BitSet set = BitSet.valueOf(bytes);
         MazeBlock[][] map = new MazeBlock[r][c];
@@ -128,6 +132,7 @@ public enum MazeFile {
     public static class Info {
         private MazeBlock[][] map;
         private MazeBlock.Location start, end;
+        private Long seed;
 
         public static Info init(MazeBlock[][] map, MazeBlock.Location start, MazeBlock.Location end) {
             int r = map.length;
@@ -148,6 +153,12 @@ public enum MazeFile {
             return info;
         }
 
+        public static Info init(MazeBlock[][] map, MazeBlock.Location start, MazeBlock.Location end, Long seed) {
+            Info info = init(map, start, end);
+            if (info != null) info.seed = seed;
+            return info;
+        }
+
         public MazeBlock[][] getMap() {
             return map;
         }
@@ -159,5 +170,12 @@ public enum MazeFile {
         public MazeBlock.Location getEnd() {
             return end;
         }
+
+        /**
+         * @return seed the maze was generated from, or null if unknown.
+         */
+        public Long getSeed() {
+            return seed;
+        }
     }
 }
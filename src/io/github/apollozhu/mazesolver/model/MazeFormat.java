@@ -0,0 +1,522 @@
+package io.github.apollozhu.mazesolver.model;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Version 2 of the maze document, which keeps everything inside the file:
+ * <pre>
+ * MAGIC(4) VERSION(1) FLAGS(1) COMPRESSION(1) RESERVED(1)
+ * r(4) c(4) sR(4) sC(4) tR(4) tC(4) [SEED(8)]
+ * BODY CRC32C(4)
+ * </pre>
+ * Numbers are big endian, the checksum covers everything before it.
+ * The body is stored as described by {@link Compression}.
+ * Rows are streamed one at a time, so the whole maze never has to be in memory.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public enum MazeFormat {
+    ;
+    public static final int MAGIC = 0x4D415A45; // "MAZE"
+    public static final byte VERSION = 2;
+    private static final byte FLAG_SEED = 1;
+    /**
+     * Most blocks a deflated body may claim. Other bodies are limited by the file length,
+     * but a small deflated one can expand into more blocks than fit in memory.
+     */
+    public static final long MAX_DEFLATED_CELLS = 1L << 26;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public static boolean isMazeFormat(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining())
+                if (channel.read(magic) < 0) return false;
+            return magic.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * How the body is stored. Run length encodes each row as alternating
+     * empty and wall runs (starting with empty) in unsigned LEB128 varints,
+     * otherwise walls are packed one bit per block. Deflate can be layered on top.
+     */
+    public enum Compression {
+        NONE(false, false), RUN_LENGTH(true, false),
+        DEFLATE(false, true), RUN_LENGTH_DEFLATE(true, true);
+
+        private final boolean isRunLength, isDeflated;
+
+        Compression(boolean isRunLength, boolean isDeflated) {
+            this.isRunLength = isRunLength;
+            this.isDeflated = isDeflated;
+        }
+
+        public static Compression of(byte code) throws IOException {
+            for (Compression compression : values())
+                if (compression.code() == code) return compression;
+            throw new IOException("Unsupported compression " + code);
+        }
+
+        /**
+         * Picks run length encoding when it is estimated to be smaller than the bit set,
+         * and deflates only when the body looks like it would shrink by at least a third.
+         * Deflate loads mazes of random blocks slower while saving next to nothing.
+         */
+        public static Compression suggest(MazeBlock[][] map) {
+            long cells = 0;
+            // How often each byte value would be written, for the bit set and for the runs.
+            long[] packed = new long[256], runs = new long[256];
+            int bits = 0, bitCount = 0;
+            for (MazeBlock[] row : map) {
+                cells += row.length;
+                boolean wall = false;
+                int run = 0;
+                for (MazeBlock block : row) {
+                    if (wall != (block == MazeBlock.WALL)) {
+                        countVarint(runs, run);
+                        wall = !wall;
+                        run = 0;
+                    }
+                    run++;
+                    if (wall) bits |= 1 << bitCount;
+                    if (++bitCount == 8) {
+                        packed[bits]++;
+                        bits = bitCount = 0;
+                    }
+                }
+                countVarint(runs, run);
+            }
+            if (bitCount > 0) packed[bits]++;
+            boolean isRunLength = sum(runs) < sum(packed);
+            long[] body = isRunLength ? runs : packed;
+            boolean isDeflated = cells >= 8 * 1024 && entropy(body) < sum(body) * 2 / 3;
+            return isRunLength
+                    ? isDeflated ? RUN_LENGTH_DEFLATE : RUN_LENGTH
+                    : isDeflated ? DEFLATE : NONE;
+        }
+
+        private static void countVarint(long[] counts, int value) {
+            while ((value & ~0x7F) != 0) {
+                counts[(value | 0x80) & 0xFF]++;
+                value >>>= 7;
+            }
+            counts[value]++;
+        }
+
+        private static long sum(long[] counts) {
+            long sum = 0;
+            for (long count : counts) sum += count;
+            return sum;
+        }
+
+        /**
+         * @return bytes needed if each byte value was coded on its own by how often it shows up,
+         * roughly what deflate gets out of blocks without repeating patterns.
+         */
+        private static double entropy(long[] counts) {
+            double total = sum(counts), bits = 0;
+            for (long count : counts)
+                if (count > 0) bits -= count * Math.log(count / total);
+            return bits / Math.log(2) / 8;
+        }
+
+        public boolean isRunLength() {
+            return isRunLength;
+        }
+
+        public boolean isDeflated() {
+            return isDeflated;
+        }
+
+        public byte code() {
+            return (byte) ((isRunLength ? 1 : 0) | (isDeflated ? 2 : 0));
+        }
+    }
+
+    public static class Header {
+        private final int rows, columns;
+        private final MazeBlock.Location start, end;
+        private final Long seed;
+        private final Compression compression;
+
+        public Header(int rows, int columns, MazeBlock.Location start, MazeBlock.Location end,
+                      Long seed, Compression compression) {
+            this.rows = rows;
+            this.columns = columns;
+            this.start = start;
+            this.end = end;
+            this.seed = seed;
+            this.compression = compression == null ? Compression.NONE : compression;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getColumns() {
+            return columns;
+        }
+
+        public MazeBlock.Location getStart() {
+            return start;
+        }
+
+        public MazeBlock.Location getEnd() {
+            return end;
+        }
+
+        /**
+         * @return seed the maze was generated from, or null if unknown.
+         */
+        public Long getSeed() {
+            return seed;
+        }
+
+        public Compression getCompression() {
+            return compression;
+        }
+
+        boolean isValid() {
+            return rows > 0 && columns > 0 &&
+                    start.getR() >= 0 && start.getR() < rows &&
+                    start.getC() >= 0 && start.getC() < columns &&
+                    end.getR() >= 0 && end.getR() < rows &&
+                    end.getC() >= 0 && end.getC() < columns;
+        }
+    }
+
+    public static class Writer implements Closeable {
+        private final WritableByteChannel channel;
+        private final Header header;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CRC32C checksum = new CRC32C();
+        private final Deflater deflater;
+        private final byte[] pending, deflated;
+        private int rowsWritten, bits, bitCount, pendingCount;
+
+        public Writer(WritableByteChannel channel, Header header) throws IOException {
+            if (!header.isValid()) throw new IllegalArgumentException("Invalid maze header");
+            this.channel = channel;
+            this.header = header;
+            if (header.compression.isDeflated) {
+                deflater = new Deflater(Deflater.BEST_SPEED);
+                pending = new byte[BUFFER_SIZE];
+                deflated = new byte[BUFFER_SIZE];
+            } else {
+                deflater = null;
+                pending = deflated = null;
+            }
+            buffer.putInt(MAGIC);
+            buffer.put(VERSION);
+            buffer.put(header.seed == null ? 0 : FLAG_SEED);
+            buffer.put(header.compression.code());
+            buffer.put((byte) 0);
+            buffer.putInt(header.rows).putInt(header.columns);
+            buffer.putInt(header.start.getR()).putInt(header.start.getC());
+            buffer.putInt(header.end.getR()).putInt(header.end.getC());
+            if (header.seed != null) buffer.putLong(header.seed);
+        }
+
+        public static Writer open(Path file, Header header) throws IOException {
+            // Checked first so a bad header doesn't wipe out what's already there.
+            if (!header.isValid()) throw new IllegalArgumentException("Invalid maze header");
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            try {
+                return new Writer(channel, header);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        public Header getHeader() {
+            return header;
+        }
+
+        public void writeRow(MazeBlock[] row) throws IOException {
+            if (row.length != header.columns || rowsWritten == header.rows)
+                throw new IllegalStateException("Row " + rowsWritten + " doesn't fit the maze");
+            if (header.compression.isRunLength) writeRuns(row);
+            else for (MazeBlock block : row) {
+                if (block == MazeBlock.WALL) bits |= 1 << bitCount;
+                if (++bitCount == 8) {
+                    write((byte) bits);
+                    bits = bitCount = 0;
+                }
+            }
+            rowsWritten++;
+        }
+
+        private void writeRuns(MazeBlock[] row) throws IOException {
+            boolean wall = false;
+            int run = 0;
+            for (MazeBlock block : row) {
+                if (wall != (block == MazeBlock.WALL)) {
+                    writeVarint(run);
+                    wall = !wall;
+                    run = 0;
+                }
+                run++;
+            }
+            writeVarint(run);
+        }
+
+        private void writeVarint(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                write((byte) (value | 0x80));
+                value >>>= 7;
+            }
+            write((byte) value);
+        }
+
+        private void write(byte b) throws IOException {
+            if (deflater == null) {
+                put(b);
+                return;
+            }
+            if (pendingCount == pending.length) deflate();
+            pending[pendingCount++] = b;
+        }
+
+        private void deflate() throws IOException {
+            deflater.setInput(pending, 0, pendingCount);
+            pendingCount = 0;
+            while (!deflater.needsInput()) drain();
+        }
+
+        private void drain() throws IOException {
+            int count = deflater.deflate(deflated);
+            for (int k = 0; k < count; ) {
+                if (!buffer.hasRemaining()) flush();
+                int length = Math.min(count - k, buffer.remaining());
+                buffer.put(deflated, k, length);
+                k += length;
+            }
+        }
+
+        private void put(byte b) throws IOException {
+            if (!buffer.hasRemaining()) flush();
+            buffer.put(b);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            checksum.update(buffer.duplicate());
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (rowsWritten != header.rows)
+                    throw new IOException("Only " + rowsWritten + " of " + header.rows + " rows written");
+                if (bitCount > 0) write((byte) bits);
+                if (deflater != null) {
+                    deflate();
+                    deflater.finish();
+                    while (!deflater.finished()) drain();
+                }
+                flush();
+                buffer.putInt((int) checksum.getValue()).flip();
+                while (buffer.hasRemaining()) channel.write(buffer);
+            } finally {
+                if (deflater != null) deflater.end();
+                channel.close();
+            }
+        }
+    }
+
+    public static class Reader implements Closeable {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CRC32C checksum = new CRC32C();
+        private final Header header;
+        private Inflater inflater;
+        private byte[] compressed, inflated;
+        private int rowsRead, bits, bitCount, checked, inflatedPosition, inflatedCount;
+
+        public Reader(ReadableByteChannel channel) throws IOException {
+            this.channel = channel;
+            buffer.flip();
+            if (getInt() != MAGIC) throw new IOException("Not a maze document");
+            byte version = get();
+            if (version != VERSION) throw new IOException("Unsupported maze version " + version);
+            byte flags = get();
+            Compression compression = Compression.of(get());
+            get();
+            int r = getInt(), c = getInt();
+            MazeBlock.Location start = new MazeBlock.Location(getInt(), getInt());
+            MazeBlock.Location end = new MazeBlock.Location(getInt(), getInt());
+            Long seed = (flags & FLAG_SEED) == 0 ? null : getLong();
+            header = new Header(r, c, start, end, seed, compression);
+            if (!header.isValid()) throw new IOException("Corrupted maze header");
+            long cells = (long) r * c;
+            if (compression.isDeflated && cells > MAX_DEFLATED_CELLS)
+                throw new IOException("Maze of " + r + "x" + c + " is too large to inflate");
+            if (!compression.isDeflated && channel instanceof SeekableByteChannel) {
+                SeekableByteChannel file = (SeekableByteChannel) channel;
+                // Runs take at least a byte a row, and bits pack 8 blocks a byte.
+                long body = compression.isRunLength ? r : (cells + 7) / 8;
+                if (body + 4 > file.size() - file.position() + buffer.remaining())
+                    throw new EOFException("Maze document is too short for " + r + "x" + c);
+            }
+            if (compression.isDeflated) {
+                inflater = new Inflater();
+                compressed = new byte[BUFFER_SIZE];
+                inflated = new byte[BUFFER_SIZE];
+            }
+        }
+
+        public static Reader open(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                return new Reader(channel);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        public Header getHeader() {
+            return header;
+        }
+
+        public boolean hasNextRow() {
+            return rowsRead < header.rows;
+        }
+
+        /**
+         * Fills in the next row, and verifies the checksum after the last one.
+         */
+        public void readRow(MazeBlock[] row) throws IOException {
+            if (!hasNextRow()) throw new EOFException("No more rows");
+            if (header.compression.isRunLength) readRuns(row);
+            else for (int j = 0; j < header.columns; j++) {
+                if (bitCount == 0) {
+                    bits = read();
+                    bitCount = 8;
+                }
+                row[j] = (bits & 1) == 1 ? MazeBlock.WALL : MazeBlock.EMPTY;
+                bits >>= 1;
+                bitCount--;
+            }
+            if (++rowsRead == header.rows) verify();
+        }
+
+        private void readRuns(MazeBlock[] row) throws IOException {
+            MazeBlock block = MazeBlock.EMPTY;
+            for (int j = 0; j < header.columns; ) {
+                int run = readVarint();
+                if (run < 0 || run > header.columns - j) throw new IOException("Corrupted run in row " + rowsRead);
+                Arrays.fill(row, j, j += run, block);
+                block = block == MazeBlock.EMPTY ? MazeBlock.WALL : MazeBlock.EMPTY;
+            }
+        }
+
+        private int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = read();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Corrupted varint in row " + rowsRead);
+        }
+
+        private int read() throws IOException {
+            if (inflater == null) return get() & 0xFF;
+            while (inflatedPosition == inflatedCount) inflate();
+            return inflated[inflatedPosition++] & 0xFF;
+        }
+
+        private void inflate() throws IOException {
+            if (inflater.finished()) throw new EOFException("Maze document is truncated");
+            if (inflater.needsInput()) {
+                require(1);
+                int length = Math.min(buffer.remaining(), compressed.length);
+                buffer.get(compressed, 0, length);
+                inflater.setInput(compressed, 0, length);
+            }
+            try {
+                inflatedCount = inflater.inflate(inflated);
+                inflatedPosition = 0;
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupted maze body", e);
+            }
+        }
+
+        private void verify() throws IOException {
+            if (inflater != null) {
+                while (!inflater.finished()) {
+                    if (inflatedPosition != inflatedCount) throw new IOException("Unexpected data after last row");
+                    inflate();
+                }
+                if (inflatedPosition != inflatedCount) throw new IOException("Unexpected data after last row");
+                // Give back what the inflater read past the end of the stream.
+                buffer.position(buffer.position() - inflater.getRemaining());
+                inflater.end();
+                inflater = null;
+            }
+            updateChecksum();
+            int expected = (int) checksum.getValue();
+            if (getInt() != expected) throw new IOException("Maze checksum mismatch");
+        }
+
+        private byte get() throws IOException {
+            require(1);
+            return buffer.get();
+        }
+
+        private int getInt() throws IOException {
+            require(4);
+            return buffer.getInt();
+        }
+
+        private long getLong() throws IOException {
+            require(8);
+            return buffer.getLong();
+        }
+
+        private void require(int count) throws IOException {
+            if (buffer.remaining() >= count) return;
+            updateChecksum();
+            buffer.compact();
+            checked = 0;
+            while (buffer.position() < count)
+                if (channel.read(buffer) < 0) throw new EOFException("Maze document is truncated");
+            buffer.flip();
+        }
+
+        private void updateChecksum() {
+            ByteBuffer consumed = buffer.duplicate();
+            consumed.limit(consumed.position()).position(checked);
+            checksum.update(consumed);
+            checked = buffer.position();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (inflater != null) inflater.end();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package io.github.apollozhu.mazesolver.model;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.IntStream;
+
+/**
+ * Turns pictures of mazes into blocks. Each cellSize x cellSize square
+ * becomes a wall if its average brightness is below the threshold (0-255).
+ * Pixels are read straight from the raster instead of through getRGB.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public enum MazeImage {
+    ;
+    public static final int DEFAULT_THRESHOLD = 128;
+    // Below this many pixels, splitting into strips costs more than it saves.
+    private static final long PARALLEL_PIXELS = 1 << 20;
+
+    public static MazeBlock[][] read(Path file) throws IOException {
+        BufferedImage image = load(file);
+        return decode(image, guessCellSize(image, DEFAULT_THRESHOLD), DEFAULT_THRESHOLD);
+    }
+
+    public static MazeBlock[][] read(Path file, int cellSize, int threshold) throws IOException {
+        return decode(load(file), cellSize, threshold);
+    }
+
+    public static BufferedImage load(Path file) throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        if (image == null) throw new IOException("Unsupported image " + file.getFileName());
+        return image;
+    }
+
+    /**
+     * @return width times height, read from the header without decoding any pixels.
+     */
+    public static long pixels(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext())
+                throw new IOException("Unsupported image " + file.getFileName());
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return (long) reader.getWidth(0) * reader.getHeight(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public static MazeBlock[][] decode(BufferedImage image, int cellSize, int threshold) {
+        cellSize = Math.max(cellSize, 1);
+        int rows = image.getHeight() / cellSize, columns = image.getWidth() / cellSize;
+        MazeBlock[][] map = new MazeBlock[rows][columns];
+        if (rows == 0 || columns == 0) return map;
+        Luminance luminance = luminanceOf(image);
+        long limit = (long) threshold * cellSize * cellSize;
+        int size = cellSize;
+        IntStream strips = IntStream.range(0, rows);
+        if ((long) image.getWidth() * image.getHeight() >= PARALLEL_PIXELS) strips = strips.parallel();
+        strips.forEach(r -> {
+            int[] line = new int[columns * size];
+            long[] sums = new long[columns];
+            for (int y = r * size; y < (r + 1) * size; y++) {
+                luminance.read(y, line);
+                for (int c = 0, x = 0; c < columns; c++) {
+                    long sum = 0;
+                    for (int end = x + size; x < end; x++) sum += line[x];
+                    sums[c] += sum;
+                }
+            }
+            for (int c = 0; c < columns; c++)
+                map[r][c] = sums[c] < limit ? MazeBlock.WALL : MazeBlock.EMPTY;
+        });
+        return map;
+    }
+
+    /**
+     * Estimates the block size as the shortest run of walls or paths
+     * in a few sampled rows, ignoring runs cut off by the border.
+     */
+    public static int guessCellSize(BufferedImage image, int threshold) {
+        int width = image.getWidth(), height = image.getHeight();
+        if (width == 0 || height == 0) return 1;
+        Luminance luminance = luminanceOf(image);
+        int[] line = new int[width];
+        int best = Integer.MAX_VALUE;
+        int step = Math.max(height / 32, 1);
+        for (int y = step / 2; y < height; y += step) {
+            luminance.read(y, line);
+            int runStart = 0;
+            for (int x = 1; x <= width; x++) {
+                if (x < width && line[x] < threshold == line[runStart] < threshold) continue;
+                if (runStart > 0 && x < width) best = Math.min(best, x - runStart);
+                runStart = x;
+            }
+        }
+        return best == Integer.MAX_VALUE ? 1 : best;
+    }
+
+    private static Luminance luminanceOf(BufferedImage image) {
+        Raster raster = image.getRaster();
+        SampleModel model = raster.getSampleModel();
+        DataBuffer buffer = raster.getDataBuffer();
+        boolean isTopLevel = raster.getParent() == null
+                && raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0;
+        switch (isTopLevel ? image.getType() : BufferedImage.TYPE_CUSTOM) {
+            case BufferedImage.TYPE_INT_RGB:
+            case BufferedImage.TYPE_INT_ARGB:
+                return packed(((DataBufferInt) buffer).getData(), buffer.getOffset(),
+                        ((SinglePixelPackedSampleModel) model).getScanlineStride(),
+                        image.getType() == BufferedImage.TYPE_INT_ARGB, image.getWidth());
+            case BufferedImage.TYPE_BYTE_GRAY:
+            case BufferedImage.TYPE_3BYTE_BGR:
+            case BufferedImage.TYPE_4BYTE_ABGR:
+                return interleaved(((DataBufferByte) buffer).getData(), buffer.getOffset(),
+                        (PixelInterleavedSampleModel) model, image.getWidth());
+            default:
+                // Palettes, bit-packed and 16-bit images are converted once.
+                BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(),
+                        BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g = rgb.createGraphics();
+                g.drawImage(image, 0, 0, null);
+                g.dispose();
+                return luminanceOf(rgb);
+        }
+    }
+
+    private static Luminance packed(int[] data, int offset, int stride, boolean hasAlpha, int width) {
+        return (y, out) -> {
+            int start = offset + y * stride;
+            for (int x = 0; x < out.length && x < width; x++) {
+                int pixel = data[start + x];
+                int value = brightness(pixel >> 16 & 0xFF, pixel >> 8 & 0xFF, pixel & 0xFF);
+                out[x] = hasAlpha ? overWhite(value, pixel >>> 24) : value;
+            }
+        };
+    }
+
+    private static Luminance interleaved(byte[] data, int offset, PixelInterleavedSampleModel model, int width) {
+        int stride = model.getScanlineStride(), pixelStride = model.getPixelStride();
+        int[] bands = model.getBandOffsets();
+        int r = bands[0], g = bands[bands.length < 3 ? 0 : 1], b = bands[bands.length < 3 ? 0 : 2];
+        if (bands.length < 3) return (y, out) -> {
+            int k = offset + y * stride + r;
+            for (int x = 0; x < out.length && x < width; x++, k += pixelStride) out[x] = data[k] & 0xFF;
+        };
+        if (bands.length == 3) return (y, out) -> {
+            int k = offset + y * stride;
+            for (int x = 0; x < out.length && x < width; x++, k += pixelStride)
+                out[x] = brightness(data[k + r] & 0xFF, data[k + g] & 0xFF, data[k + b] & 0xFF);
+        };
+        int a = bands[3];
+        return (y, out) -> {
+            int k = offset + y * stride;
+            for (int x = 0; x < out.length && x < width; x++, k += pixelStride)
+                out[x] = overWhite(brightness(data[k + r] & 0xFF, data[k + g] & 0xFF,
+                        data[k + b] & 0xFF), data[k + a] & 0xFF);
+        };
+    }
+
+    private static int brightness(int r, int g, int b) {
+        return (77 * r + 150 * g + 29 * b) >> 8;
+    }
+
+    // Transparent pixels count as background, not walls.
+    private static int overWhite(int value, int alpha) {
+        return (value * alpha + 255 * (255 - alpha)) / 255;
+    }
+
+    private interface Luminance {
+        void read(int y, int[] out);
+    }
+}
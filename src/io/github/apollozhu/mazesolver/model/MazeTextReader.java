@@ -0,0 +1,140 @@
+package io.github.apollozhu.mazesolver.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Parses the integer grid printed by {@link MazeCoder} one row at a time,
+ * so large mazes don't have to be materialized as int[][] first.
+ * Blank lines are skipped, and every row must be as wide as the first.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class MazeTextReader implements Closeable {
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final int wall, empty, visited, path;
+    private MazeBlock[] line = new MazeBlock[64];
+    private int lineLength, columns = -1, rowsRead;
+    private boolean hasBufferedLine, isEnd;
+
+    public MazeTextReader(ReadableByteChannel channel) {
+        this(channel, MazeCoder.WALL, MazeCoder.EMPTY, MazeCoder.VISITED, MazeCoder.PATH);
+    }
+
+    public MazeTextReader(ReadableByteChannel channel, int wall, int empty, int visited, int path) {
+        this.channel = channel;
+        this.wall = wall;
+        this.empty = empty;
+        this.visited = visited;
+        this.path = path;
+        buffer.flip();
+    }
+
+    public static MazeTextReader open(Path file) throws IOException {
+        return new MazeTextReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    public static MazeTextReader open(Path file, int wall, int empty, int visited, int path) throws IOException {
+        return new MazeTextReader(FileChannel.open(file, StandardOpenOption.READ), wall, empty, visited, path);
+    }
+
+    /**
+     * @return number of blocks in each row, or 0 if there are no rows.
+     */
+    public int getColumns() throws IOException {
+        if (columns < 0) {
+            hasBufferedLine = parseLine();
+            columns = hasBufferedLine ? lineLength : 0;
+        }
+        return columns;
+    }
+
+    /**
+     * @return false if there are no more rows.
+     */
+    public boolean readRow(MazeBlock[] row) throws IOException {
+        if (getColumns() == 0) return false;
+        if (!hasBufferedLine && !parseLine()) return false;
+        hasBufferedLine = false;
+        if (lineLength != columns) throw new IOException("Row " + rowsRead + " has "
+                + lineLength + " blocks instead of " + columns);
+        System.arraycopy(line, 0, row, 0, columns);
+        rowsRead++;
+        return true;
+    }
+
+    public PackedMaze readAll() throws IOException {
+        PackedMaze maze = new PackedMaze(getColumns());
+        MazeBlock[] row = new MazeBlock[columns];
+        while (readRow(row)) maze.addRow(row);
+        return maze;
+    }
+
+    private boolean parseLine() throws IOException {
+        lineLength = 0;
+        int value = 0, sign = 1;
+        boolean hasDigit = false;
+        while (true) {
+            int b = next();
+            if (b >= '0' && b <= '9') {
+                value = value * 10 + b - '0';
+                hasDigit = true;
+                continue;
+            }
+            if (b == '-' && !hasDigit) {
+                sign = -1;
+                continue;
+            }
+            if (hasDigit) {
+                append(toBlock(sign * value));
+                value = 0;
+                sign = 1;
+                hasDigit = false;
+            }
+            if (b == '\n' && lineLength > 0 || b < 0) return lineLength > 0;
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n')
+                throw new IOException("Unexpected character '" + (char) b + "' in row " + rowsRead);
+        }
+    }
+
+    private int next() throws IOException {
+        if (!buffer.hasRemaining()) {
+            if (isEnd) return -1;
+            buffer.clear();
+            int count;
+            do count = channel.read(buffer);
+            while (count == 0);
+            buffer.flip();
+            if (count < 0) {
+                isEnd = true;
+                return -1;
+            }
+        }
+        return buffer.get();
+    }
+
+    private void append(MazeBlock block) {
+        if (lineLength == line.length) line = Arrays.copyOf(line, lineLength * 2);
+        line[lineLength++] = block;
+    }
+
+    private MazeBlock toBlock(int code) throws IOException {
+        if (code == wall) return MazeBlock.WALL;
+        if (code == empty) return MazeBlock.EMPTY;
+        if (code == visited) return MazeBlock.VISITED;
+        if (code == path) return MazeBlock.PATH;
+        throw new IOException("Unknown code " + code + " in row " + rowsRead);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
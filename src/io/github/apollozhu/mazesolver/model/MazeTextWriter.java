@@ -0,0 +1,84 @@
+package io.github.apollozhu.mazesolver.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Prints mazes in the same integer grid as {@link MazeCoder#toString(int[][])},
+ * one row at a time.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class MazeTextWriter implements Closeable {
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final byte[][] codes = new byte[MazeBlock.values().length][];
+
+    public MazeTextWriter(WritableByteChannel channel) {
+        this(channel, MazeCoder.WALL, MazeCoder.EMPTY, MazeCoder.VISITED, MazeCoder.PATH);
+    }
+
+    public MazeTextWriter(WritableByteChannel channel, int wall, int empty, int visited, int path) {
+        this.channel = channel;
+        codes[MazeBlock.WALL.ordinal()] = toBytes(wall);
+        codes[MazeBlock.EMPTY.ordinal()] = toBytes(empty);
+        codes[MazeBlock.VISITED.ordinal()] = toBytes(visited);
+        codes[MazeBlock.PATH.ordinal()] = toBytes(path);
+    }
+
+    public static MazeTextWriter open(Path file) throws IOException {
+        return new MazeTextWriter(create(file));
+    }
+
+    public static MazeTextWriter open(Path file, int wall, int empty, int visited, int path) throws IOException {
+        return new MazeTextWriter(create(file), wall, empty, visited, path);
+    }
+
+    private static FileChannel create(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    private static byte[] toBytes(int code) {
+        return (code + " ").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public void writeRow(MazeBlock[] row) throws IOException {
+        for (MazeBlock block : row) {
+            byte[] code = codes[block.ordinal()];
+            if (buffer.remaining() < code.length) flush();
+            buffer.put(code);
+        }
+        if (!buffer.hasRemaining()) flush();
+        buffer.put((byte) '\n');
+    }
+
+    public void write(PackedMaze maze) throws IOException {
+        MazeBlock[] row = new MazeBlock[maze.getColumns()];
+        for (int i = 0; i < maze.getRows(); i++) {
+            maze.getRow(i, row);
+            writeRow(row);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
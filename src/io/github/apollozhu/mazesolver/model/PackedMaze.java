@@ -0,0 +1,88 @@
+package io.github.apollozhu.mazesolver.model;
+
+import java.util.Arrays;
+
+/**
+ * Maze stored with 2 bits per block, 32 blocks in each long of a row.
+ * Rows can be appended one by one when the height isn't known up front.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class PackedMaze {
+    private static final MazeBlock[] BLOCKS = MazeBlock.values();
+    private final int columns;
+    private long[][] rows;
+    private int rowCount;
+
+    public PackedMaze(int columns) {
+        this(0, columns);
+    }
+
+    public PackedMaze(int rows, int columns) {
+        this.columns = columns;
+        this.rows = new long[Math.max(rows, 8)][];
+        for (int i = 0; i < rows; i++) this.rows[i] = newRow();
+        this.rowCount = rows;
+    }
+
+    public static PackedMaze of(MazeBlock[][] map) {
+        PackedMaze maze = new PackedMaze(map.length, map.length == 0 ? 0 : map[0].length);
+        for (int i = 0; i < map.length; i++) maze.setRow(i, map[i]);
+        return maze;
+    }
+
+    public int getRows() {
+        return rowCount;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public MazeBlock get(int r, int c) {
+        return BLOCKS[(int) (rows[r][c >>> 5] >>> ((c & 31) << 1)) & 3];
+    }
+
+    public void set(int r, int c, MazeBlock block) {
+        int shift = (c & 31) << 1;
+        long[] row = rows[r];
+        row[c >>> 5] = row[c >>> 5] & ~(3L << shift) | (long) block.ordinal() << shift;
+    }
+
+    public void getRow(int r, MazeBlock[] out) {
+        long[] row = rows[r];
+        for (int c = 0; c < columns; c++)
+            out[c] = BLOCKS[(int) (row[c >>> 5] >>> ((c & 31) << 1)) & 3];
+    }
+
+    public void setRow(int r, MazeBlock[] in) {
+        long[] row = rows[r];
+        Arrays.fill(row, 0);
+        for (int c = 0; c < columns; c++)
+            row[c >>> 5] |= (long) in[c].ordinal() << ((c & 31) << 1);
+    }
+
+    public void addRow(MazeBlock[] in) {
+        if (rowCount == rows.length) rows = Arrays.copyOf(rows, rowCount * 2);
+        rows[rowCount] = newRow();
+        setRow(rowCount++, in);
+    }
+
+    public PackedMaze copy() {
+        PackedMaze copy = new PackedMaze(0, columns);
+        copy.rows = new long[Math.max(rowCount, 8)][];
+        for (int i = 0; i < rowCount; i++) copy.rows[i] = rows[i].clone();
+        copy.rowCount = rowCount;
+        return copy;
+    }
+
+    public MazeBlock[][] toBlocks() {
+        MazeBlock[][] map = new MazeBlock[rowCount][columns];
+        for (int i = 0; i < rowCount; i++) getRow(i, map[i]);
+        return map;
+    }
+
+    private long[] newRow() {
+        return new long[(columns + 31) >>> 5];
+    }
+}
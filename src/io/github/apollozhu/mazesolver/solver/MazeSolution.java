@@ -0,0 +1,273 @@
+package io.github.apollozhu.mazesolver.solver;
+
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Result of a solve that can be shared without solving again:
+ * <pre>
+ * MAGIC(4) VERSION(1) FLAGS(1) RESERVED(2)
+ * r(4) c(4) sR(4) sC(4) tR(4) tC(4) LENGTH(4) DIRECTIONS
+ * [VISITED_SIZE(4) VISITED] CRC32C(4)
+ * </pre>
+ * Each step of the path is a 2 bit {@link MazeSolver.Direction} ordinal,
+ * and the optional visited blocks are a deflated bit set.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class MazeSolution {
+    public static final int MAGIC = 0x4D534F4C; // "MSOL"
+    public static final byte VERSION = 1;
+    private static final byte FLAG_HAS_PATH = 1, FLAG_VISITED = 2;
+    private static final MazeSolver.Direction[] DIRECTIONS = {
+            MazeSolver.Direction.UP, MazeSolver.Direction.RIGHT,
+            MazeSolver.Direction.DOWN, MazeSolver.Direction.LEFT
+    };
+
+    private final int rows, columns;
+    private final MazeBlock.Location start, end;
+    private final boolean hasPath;
+    private final byte[] directions;
+    private final int length;
+    private final BitSet visited;
+
+    private MazeSolution(int rows, int columns, MazeBlock.Location start, MazeBlock.Location end,
+                         boolean hasPath, byte[] directions, int length, BitSet visited) {
+        this.rows = rows;
+        this.columns = columns;
+        this.start = start;
+        this.end = end;
+        this.hasPath = hasPath;
+        this.directions = directions;
+        this.length = length;
+        this.visited = visited;
+    }
+
+    /**
+     * Records a solved map. The path is the shortest walk over PATH blocks,
+     * since not every solver leaves a single line of them behind.
+     *
+     * @param includeVisited whether to also keep every block the solver tried.
+     */
+    public static MazeSolution of(MazeBlock[][] map, MazeBlock.Location start, MazeBlock.Location end,
+                                  boolean hasPath, boolean includeVisited) {
+        int rows = map.length, columns = map[0].length;
+        BitSet visited = null;
+        if (includeVisited) {
+            visited = new BitSet(rows * columns);
+            for (int i = 0, k = 0; i < rows; i++)
+                for (int j = 0; j < columns; j++, k++)
+                    if (map[i][j] == MazeBlock.VISITED || map[i][j] == MazeBlock.PATH) visited.set(k);
+        }
+        byte[] steps = hasPath ? tracePath(map, start, end) : new byte[0];
+        if (steps == null) {
+            hasPath = false;
+            steps = new byte[0];
+        }
+        byte[] packed = new byte[(steps.length + 3) / 4];
+        for (int i = 0; i < steps.length; i++) packed[i / 4] |= steps[i] << (i % 4 * 2);
+        return new MazeSolution(rows, columns, start, end, hasPath, packed, steps.length, visited);
+    }
+
+    private static byte[] tracePath(MazeBlock[][] map, MazeBlock.Location start, MazeBlock.Location end) {
+        int rows = map.length, columns = map[0].length;
+        int source = start.getR() * columns + start.getC(), target = end.getR() * columns + end.getC();
+        byte[] from = new byte[rows * columns];
+        Arrays.fill(from, (byte) -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(source);
+        from[source] = 4;
+        while (!queue.isEmpty() && from[target] < 0) {
+            int k = queue.remove(), r = k / columns, c = k % columns;
+            for (byte d = 0; d < 4; d++) {
+                int nR = r + DIRECTIONS[d].dx(), nC = c + DIRECTIONS[d].dy();
+                if (nR < 0 || nC < 0 || nR >= rows || nC >= columns) continue;
+                int next = nR * columns + nC;
+                if (from[next] >= 0 || map[nR][nC] != MazeBlock.PATH && next != target) continue;
+                from[next] = d;
+                queue.add(next);
+            }
+        }
+        if (from[target] < 0) return null;
+        int length = 0;
+        for (int k = target; k != source; length++)
+            k -= DIRECTIONS[from[k]].dx() * columns + DIRECTIONS[from[k]].dy();
+        byte[] steps = new byte[length];
+        for (int k = target, i = length - 1; k != source; i--) {
+            steps[i] = from[k];
+            k -= DIRECTIONS[from[k]].dx() * columns + DIRECTIONS[from[k]].dy();
+        }
+        return steps;
+    }
+
+    public static MazeSolution read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Solution is too large");
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+            while (buffer.hasRemaining())
+                if (channel.read(buffer) < 0) throw new EOFException("Solution is truncated");
+            buffer.flip();
+            if (buffer.remaining() < 40 || buffer.getInt() != MAGIC) throw new IOException("Not a solution");
+            byte version = buffer.get();
+            if (version != VERSION) throw new IOException("Unsupported solution version " + version);
+            byte flags = buffer.get();
+            buffer.getShort();
+            int rows = buffer.getInt(), columns = buffer.getInt();
+            MazeBlock.Location start = new MazeBlock.Location(buffer.getInt(), buffer.getInt());
+            MazeBlock.Location end = new MazeBlock.Location(buffer.getInt(), buffer.getInt());
+            int length = buffer.getInt();
+            // In long, so sizes near Integer.MAX_VALUE can't wrap around and pass.
+            if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE - 7
+                    || length < 0 || (length + 3L) / 4 > buffer.remaining() - 4)
+                throw new IOException("Corrupted solution");
+            byte[] directions = new byte[(length + 3) / 4];
+            buffer.get(directions);
+            BitSet visited = null;
+            if ((flags & FLAG_VISITED) != 0) {
+                int compressedSize = buffer.getInt();
+                if (compressedSize < 0 || compressedSize > buffer.remaining() - 4)
+                    throw new IOException("Corrupted solution");
+                byte[] compressed = new byte[compressedSize];
+                buffer.get(compressed);
+                visited = BitSet.valueOf(inflate(compressed, (rows * columns + 7) / 8));
+            }
+            CRC32C checksum = new CRC32C();
+            ByteBuffer covered = buffer.duplicate();
+            covered.flip();
+            checksum.update(covered);
+            if (buffer.getInt() != (int) checksum.getValue()) throw new IOException("Solution checksum mismatch");
+            MazeSolution solution = new MazeSolution(rows, columns, start, end,
+                    (flags & FLAG_HAS_PATH) != 0, directions, length, visited);
+            if (!solution.isInside(start) || !solution.isInside(end)) throw new IOException("Corrupted solution");
+            return solution;
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int size) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] bytes = new byte[size];
+            int count = 0;
+            while (!inflater.finished() && count < size) {
+                int inflated = inflater.inflate(bytes, count, size - count);
+                if (inflated == 0 && inflater.needsInput()) throw new EOFException("Solution is truncated");
+                count += inflated;
+            }
+            return bytes;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted solution", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        byte[] compressed = null;
+        if (visited != null) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            deflater.setInput(visited.toByteArray());
+            deflater.finish();
+            byte[] chunk = new byte[64 * 1024];
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            while (!deflater.finished()) out.write(chunk, 0, deflater.deflate(chunk));
+            deflater.end();
+            compressed = out.toByteArray();
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(40 + directions.length
+                + (compressed == null ? 0 : 4 + compressed.length) + 4);
+        buffer.putInt(MAGIC).put(VERSION);
+        buffer.put((byte) ((hasPath ? FLAG_HAS_PATH : 0) | (compressed == null ? 0 : FLAG_VISITED)));
+        buffer.putShort((short) 0);
+        buffer.putInt(rows).putInt(columns);
+        buffer.putInt(start.getR()).putInt(start.getC());
+        buffer.putInt(end.getR()).putInt(end.getC());
+        buffer.putInt(length).put(directions);
+        if (compressed != null) buffer.putInt(compressed.length).put(compressed);
+        CRC32C checksum = new CRC32C();
+        ByteBuffer covered = buffer.duplicate();
+        covered.flip();
+        checksum.update(covered);
+        buffer.putInt((int) checksum.getValue()).flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    /**
+     * Marks the visited blocks and then walks the path onto the map,
+     * which takes time proportional to the path without visited blocks.
+     *
+     * @return false if the solution doesn't fit the map.
+     */
+    public boolean applyTo(MazeBlock[][] map) {
+        if (map.length != rows || map[0].length != columns) return false;
+        if (visited != null)
+            for (int k = visited.nextSetBit(0); k >= 0; k = visited.nextSetBit(k + 1))
+                if (map[k / columns][k % columns] != MazeBlock.WALL)
+                    map[k / columns][k % columns] = MazeBlock.VISITED;
+        if (!hasPath) return true;
+        int r = start.getR(), c = start.getC();
+        map[r][c] = MazeBlock.PATH;
+        for (int i = 0; i < length; i++) {
+            MazeSolver.Direction direction = getDirection(i);
+            r += direction.dx();
+            c += direction.dy();
+            if (r < 0 || c < 0 || r >= rows || c >= columns) return false;
+            map[r][c] = MazeBlock.PATH;
+        }
+        return true;
+    }
+
+    private boolean isInside(MazeBlock.Location location) {
+        return location.getR() >= 0 && location.getR() < rows
+                && location.getC() >= 0 && location.getC() < columns;
+    }
+
+    public MazeSolver.Direction getDirection(int step) {
+        return DIRECTIONS[directions[step / 4] >> (step % 4 * 2) & 3];
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public MazeBlock.Location getStart() {
+        return start;
+    }
+
+    public MazeBlock.Location getEnd() {
+        return end;
+    }
+
+    public boolean hasPath() {
+        return hasPath;
+    }
+
+    /**
+     * @return number of steps from start to target.
+     */
+    public int getLength() {
+        return length;
+    }
+}
@@ -2,7 +2,7 @@ package io.github.apollozhu.mazesolver.solver;
 
 import io.github.apollozhu.mazesolver.model.MazeBlock;
 
-import javax.swing.event.EventListenerList;
+import java.util.Arrays;
 import java.util.EventListener;
 import java.util.function.Consumer;
 
@@ -11,20 +11,79 @@ import java.util.function.Consumer;
  */
 public abstract class MazeSolver {
 
-    private final EventListenerList list = new EventListenerList();
+    // Newest first, and replaced instead of changed so telling them needs no lock or copy.
+    private volatile MSEventListener[] listeners = new MSEventListener[0];
     private MazeBlock[][] grid;
+    // Told about every event before the listeners, so even a stopped solve is counted.
+    // Expanded blocks are counted by set instead.
+    private final Counter counter = new Counter();
+    private int peakFrontier, pathLength;
+    // Only written by the solving thread; others may see it a little late, which is fine for display.
+    private int frontier;
+    private volatile SolveMetrics metrics;
 
     public final boolean start(MazeBlock[][] input,
                                int r, int c, int tR, int tC) {
-        setGrid(input);
-        if (get(r, c) == MazeBlock.WALL || get(tR, tC) == MazeBlock.WALL) return false;
-        set(r, c, MazeBlock.EMPTY);
-        set(tR, tC, MazeBlock.EMPTY);
-        return start(r, c, tR, tC);
+        long allocated = SolverMetrics.allocatedBytes(), begin = System.nanoTime();
+        Object trace = SolveEvents.isRecording() ? SolveEvents.begin("prepare") : null;
+        counter.expanded = counter.failed = 0;
+        frontier = peakFrontier = 0;
+        pathLength = -1;
+        boolean hasPath = false, isCompleted = false;
+        try {
+            setGrid(input);
+            if (get(r, c) != MazeBlock.WALL && get(tR, tC) != MazeBlock.WALL) {
+                set(r, c, MazeBlock.EMPTY);
+                set(tR, tC, MazeBlock.EMPTY);
+                if (trace != null) SolveEvents.phase(trace, "search");
+                hasPath = start(r, c, tR, tC);
+            }
+            isCompleted = true;
+            return hasPath;
+        } finally {
+            long nanos = System.nanoTime() - begin;
+            if (allocated >= 0) allocated = SolverMetrics.allocatedBytes() - allocated;
+            int rows = input == null ? 0 : input.length, columns = rows == 0 ? 0 : input[0].length;
+            SolveMetrics metrics = new SolveMetrics(Type.of(this), rows, columns, isCompleted, hasPath,
+                    counter.expanded, counter.failed, peakFrontier, hasPath ? pathLength : -1, nanos, allocated);
+            this.metrics = metrics;
+            SolverMetrics.record(metrics);
+            if (trace != null) SolveEvents.end(trace, metrics);
+        }
     }
 
     protected abstract boolean start(int r, int c, int tR, int tC);
 
+    /**
+     * @return what the last solve cost, or null before the first one ends.
+     */
+    public SolveMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return how many steps were waiting to be tried, or how deep the recursion was,
+     * at the last step forward.
+     */
+    public int getFrontier() {
+        return frontier;
+    }
+
+    /**
+     * Tells how many steps are waiting to be tried, or how deep the recursion is.
+     */
+    protected final void reportFrontier(int size) {
+        frontier = size;
+        if (size > peakFrontier) peakFrontier = size;
+    }
+
+    /**
+     * Tells how many steps the path found takes from start to target.
+     */
+    protected final void reportPathLength(int length) {
+        pathLength = length;
+    }
+
     public void stop() {
         stop(false);
     }
@@ -59,27 +118,48 @@ public abstract class MazeSolver {
 
     protected void set(int x, int y, MazeBlock block) {
         try {
+            // Only a block turning from EMPTY to PATH counts as expanded, however many tries it took.
+            if (block == MazeBlock.PATH && grid[x][y] == MazeBlock.EMPTY) counter.expanded++;
             grid[x][y] = block;
         } catch (Exception e) {
         }
     }
 
-    public void addEventListener(MSEventListener l) {
-        list.add(MSEventListener.class, l);
+    public synchronized void addEventListener(MSEventListener l) {
+        if (l == null) return;
+        MSEventListener[] listeners = new MSEventListener[this.listeners.length + 1];
+        listeners[0] = l;
+        System.arraycopy(this.listeners, 0, listeners, 1, this.listeners.length);
+        this.listeners = listeners;
     }
 
-    public void removeEventListener(MSEventListener l) {
-        list.remove(MSEventListener.class, l);
+    public synchronized void removeEventListener(MSEventListener l) {
+        if (l == null) return;
+        MSEventListener[] listeners = this.listeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (!listeners[i].equals(l)) continue;
+            MSEventListener[] removed = Arrays.copyOf(listeners, listeners.length - 1);
+            System.arraycopy(listeners, i + 1, removed, i, listeners.length - i - 1);
+            this.listeners = removed;
+            return;
+        }
     }
 
     protected void forEachListener(Consumer<MSEventListener> consumer) {
-        for (MSEventListener l : list.getListeners(MSEventListener.class))
+        consumer.accept(counter);
+        for (MSEventListener l : listeners)
             consumer.accept(l);
     }
 
     public enum Type {
         RECURSIVE, STACK, DFS, BFS;
 
+        static Type of(MazeSolver solver) {
+            for (Type type : values())
+                if (type.associatedClass() == solver.getClass()) return type;
+            return null;
+        }
+
         Class associatedClass() {
             switch (this) {
                 case RECURSIVE:
@@ -171,6 +251,31 @@ public abstract class MazeSolver {
         void ended(boolean hasPath, MazeBlock[][] map);
     }
 
+    private static class Counter implements MSEventListener<Object> {
+        private long expanded, failed;
+
+        @Override
+        public void started(int r, int c, int tR, int tC, MazeBlock[][] map) {
+        }
+
+        @Override
+        public void tryout(int r, int c, Direction direction, Object path, MazeBlock[][] map) {
+        }
+
+        @Override
+        public void found(int tR, int tC, Object path, MazeBlock[][] map) {
+        }
+
+        @Override
+        public void failed(int r, int c, Object path, MazeBlock[][] map) {
+            failed++;
+        }
+
+        @Override
+        public void ended(boolean hasPath, MazeBlock[][] map) {
+        }
+    }
+
     public static class Step {
         private final MazeBlock.Location start;
         private final Direction direction;
@@ -9,8 +9,11 @@ import java.util.Queue;
  * @author ApolloZhu, Pd. 1
  */
 public class QueueBasedBFSMazeSolver extends MazeSolver {
+    private static final Direction[] DIRECTIONS = Direction.values();
     private Queue<Step> pending;
     private MazeBlock.Location start;
+    // Direction each reached block was stepped into from, to walk back for the path length.
+    private byte[] from;
 
     // Same old thing, greedy algorithm
     protected void pushAllNextStepsFrom(MazeBlock.Location curLocation, /*targeting*/ MazeBlock.Location target) {
@@ -37,6 +40,7 @@ public class QueueBasedBFSMazeSolver extends MazeSolver {
     protected boolean start(int r, int c, int tR, int tC) {
         // Setup
         pending = new LinkedList<>();
+        from = new byte[getGrid().length * getGrid()[0].length];
         forEachListener(l -> l.started(r, c, tR, tC, getGrid()));
         start = new MazeBlock.Location(r, c);
         final MazeBlock.Location end = new MazeBlock.Location(tR, tC);
@@ -53,12 +57,16 @@ public class QueueBasedBFSMazeSolver extends MazeSolver {
             if (curLocation.equals(end)) {
                 hasPath = true;
                 set(end, MazeBlock.PATH);
+                if (!end.equals(start)) from[indexOf(end)] = (byte) copy.getDirection().ordinal();
+                reportPathLength(lengthTo(end));
                 forEachListener(l -> l.found(tR, tC, null, getGrid()));
                 break;
             }
             if (get(curLocation) == MazeBlock.EMPTY) {
                 set(curLocation, MazeBlock.PATH);
+                from[indexOf(curLocation)] = (byte) curStep.getDirection().ordinal();
                 pushAllNextStepsFrom(curLocation, end);
+                reportFrontier(pending.size());
             } else {
                 if (pending.isEmpty()) break;
                 Step next = pending.peek();
@@ -73,6 +81,19 @@ public class QueueBasedBFSMazeSolver extends MazeSolver {
         return hasPath;
     }
 
+    private int indexOf(MazeBlock.Location location) {
+        return location.getR() * getGrid()[0].length + location.getC();
+    }
+
+    private int lengthTo(MazeBlock.Location location) {
+        int columns = getGrid()[0].length, length = 0, source = indexOf(start);
+        for (int k = indexOf(location); k != source; length++) {
+            Direction direction = DIRECTIONS[from[k]];
+            k -= direction.dx() * columns + direction.dy();
+        }
+        return length;
+    }
+
     private void failIfNeeded(int r, int c) {
         if (get(r, c) == MazeBlock.PATH
                 && isInaccessible(r, c)) fail(r, c);
@@ -6,8 +6,11 @@ import io.github.apollozhu.mazesolver.model.MazeBlock;
  * @author ApolloZhu, Pd. 1
  */
 public class RecursiveMazeSolver extends MazeSolver {
+    private int depth;
+
     @Override
     protected boolean start(int r, int c, int tR, int tC) {
+        depth = 0;
         boolean hasPath = findAnExitHelper(r, c, tR, tC, "", null);
         forEachListener(l -> l.ended(hasPath, getGrid()));
         return hasPath;
@@ -23,8 +26,10 @@ public class RecursiveMazeSolver extends MazeSolver {
 
         String newPath = path + "[" + x + "," + y + "]";
         set(x, y, MazeBlock.PATH);
+        reportFrontier(++depth);
         if (x == tX && y == tY) {
             set(tX, tY, MazeBlock.PATH);
+            reportPathLength(depth - 1);
             forEachListener(l -> l.found(x, y, newPath, getGrid()));
             return true;
         }
@@ -52,6 +57,7 @@ public class RecursiveMazeSolver extends MazeSolver {
             set(x, y, MazeBlock.VISITED);
             forEachListener(l -> l.failed(x, y, path, getGrid()));
         }
+        depth--;
         return false;
     }
 }
@@ -0,0 +1,123 @@
+package io.github.apollozhu.mazesolver.solver;
+
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder events of solves, so what a solver did can be lined up
+ * with GC and CPU samples of the same recording. Nothing here is touched
+ * unless the jdk.jfr module is there, which keeps solvers working without it.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+enum SolveEvents {
+    ;
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+    /**
+     * Loading the first event starts up much of Flight Recorder,
+     * so there are no events until something else started it.
+     * Recordings started later with jcmd are seen from the next solve.
+     */
+    static boolean isRecording() {
+        return AVAILABLE && FlightRecorder.isInitialized();
+    }
+
+    /**
+     * Starts timing a solve, and its first phase.
+     *
+     * @return what to pass to {@link #phase(Object, String)} and {@link #end(Object, SolveMetrics)}.
+     */
+    static Object begin(String firstPhase) {
+        Trace trace = new Trace();
+        trace.solve.begin();
+        trace.begin(firstPhase);
+        return trace;
+    }
+
+    /**
+     * Ends the current phase and starts the next one.
+     */
+    static void phase(Object trace, String next) {
+        ((Trace) trace).end();
+        ((Trace) trace).begin(next);
+    }
+
+    static void end(Object trace, SolveMetrics metrics) {
+        Trace t = (Trace) trace;
+        t.end();
+        Solve solve = t.solve;
+        solve.end();
+        if (!solve.shouldCommit()) return;
+        solve.solver = name(metrics.getType());
+        solve.rows = metrics.getRows();
+        solve.columns = metrics.getColumns();
+        solve.completed = metrics.isCompleted();
+        solve.hasPath = metrics.hasPath();
+        solve.expanded = metrics.getExpanded();
+        solve.failed = metrics.getFailed();
+        solve.peakFrontier = metrics.getPeakFrontier();
+        solve.pathLength = metrics.getPathLength();
+        solve.allocated = metrics.getAllocatedBytes();
+        solve.commit();
+    }
+
+    private static String name(MazeSolver.Type type) {
+        return type == null ? "Custom" : type.description();
+    }
+
+    private static class Trace {
+        final Solve solve = new Solve();
+        Phase phase;
+
+        void begin(String name) {
+            phase = new Phase();
+            phase.phase = name;
+            phase.begin();
+        }
+
+        void end() {
+            phase.end();
+            if (phase.shouldCommit()) phase.commit();
+        }
+    }
+
+    @Name("io.github.apollozhu.mazesolver.Solve")
+    @Label("Maze Solve")
+    @Category("Maze Solver")
+    @Description("One call to MazeSolver.start, from setting up the grid to the last event")
+    @StackTrace(false)
+    static class Solve extends Event {
+        @Label("Solver")
+        String solver;
+        @Label("Rows")
+        int rows;
+        @Label("Columns")
+        int columns;
+        @Label("Completed")
+        @Description("False if a listener stopped the solve")
+        boolean completed;
+        @Label("Has Path")
+        boolean hasPath;
+        @Label("Cells Expanded")
+        @Description("Blocks that went from empty to path")
+        long expanded;
+        @Label("Cells Failed")
+        long failed;
+        @Label("Peak Frontier")
+        int peakFrontier;
+        @Label("Path Length")
+        int pathLength;
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+
+    @Name("io.github.apollozhu.mazesolver.SolvePhase")
+    @Label("Maze Solve Phase")
+    @Category("Maze Solver")
+    @StackTrace(false)
+    static class Phase extends Event {
+        @Label("Phase")
+        String phase;
+    }
+}
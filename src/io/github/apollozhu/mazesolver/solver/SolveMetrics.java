@@ -0,0 +1,107 @@
+package io.github.apollozhu.mazesolver.solver;
+
+/**
+ * What one call to {@link MazeSolver#start(io.github.apollozhu.mazesolver.model.MazeBlock[][], int, int, int, int)}
+ * cost, whether it finished or was stopped from inside an event.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class SolveMetrics {
+    private final MazeSolver.Type type;
+    private final int rows, columns;
+    private final boolean isCompleted, hasPath;
+    private final long expanded, failed;
+    private final int peakFrontier, pathLength;
+    private final long nanos, allocatedBytes;
+
+    SolveMetrics(MazeSolver.Type type, int rows, int columns, boolean isCompleted, boolean hasPath,
+                 long expanded, long failed, int peakFrontier, int pathLength, long nanos, long allocatedBytes) {
+        this.type = type;
+        this.rows = rows;
+        this.columns = columns;
+        this.isCompleted = isCompleted;
+        this.hasPath = hasPath;
+        this.expanded = expanded;
+        this.failed = failed;
+        this.peakFrontier = peakFrontier;
+        this.pathLength = pathLength;
+        this.nanos = nanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * @return which solver it was, or null for solvers that are not a {@link MazeSolver.Type}.
+     */
+    public MazeSolver.Type getType() {
+        return type;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return false if the solve was stopped by something thrown from a listener.
+     */
+    public boolean isCompleted() {
+        return isCompleted;
+    }
+
+    public boolean hasPath() {
+        return hasPath;
+    }
+
+    /**
+     * @return number of blocks that went from empty to path,
+     * not counting tryouts into walls or blocks already reached.
+     */
+    public long getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * @return number of blocks given up on and backtracked from.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return most steps that were ever waiting to be tried at once,
+     * or the deepest the recursion went.
+     */
+    public int getPeakFrontier() {
+        return peakFrontier;
+    }
+
+    /**
+     * @return steps from start to target, or -1 if there is no path.
+     */
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return bytes allocated by the solving thread, or -1 if
+     * {@link SolverMetrics#register()} wasn't called or the JVM can't tell.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return (type == null ? "Custom" : type.description()) + " on " + rows + "x" + columns + ": "
+                + (!isCompleted ? "stopped" : hasPath ? pathLength + " steps" : "no path")
+                + ", " + expanded + " expanded, " + failed + " failed, peak frontier " + peakFrontier
+                + String.format(", %.3f ms, ", nanos / 1e6) + allocatedBytes + " bytes";
+    }
+}
@@ -0,0 +1,151 @@
+package io.github.apollozhu.mazesolver.solver;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Adds up the {@link SolveMetrics} of every solve by one type of solver.
+ * Solves are counted whether or not {@link #register()} was called,
+ * so registering late still shows everything solved before,
+ * but allocations are only measured after, since looking up
+ * the thread MXBean would make every one-shot CLI run slower to start.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class SolverMetrics implements SolverMetricsMXBean {
+    private static final SolverMetrics[] ALL = new SolverMetrics[MazeSolver.Type.values().length];
+    private static boolean isRegistered;
+    private static volatile boolean isMeasuringAllocation;
+
+    static {
+        for (MazeSolver.Type type : MazeSolver.Type.values())
+            ALL[type.ordinal()] = new SolverMetrics();
+    }
+
+    private final LongAdder solves = new LongAdder(), stopped = new LongAdder(), found = new LongAdder(),
+            expanded = new LongAdder(), failed = new LongAdder(), nanos = new LongAdder(), allocated = new LongAdder();
+    private final LongAccumulator peakFrontier = new LongAccumulator(Math::max, 0);
+
+    private SolverMetrics() {
+    }
+
+    public static SolverMetrics of(MazeSolver.Type type) {
+        return ALL[type.ordinal()];
+    }
+
+    /**
+     * Makes the totals of each type of solver visible through JMX,
+     * and starts measuring allocations. Calling it again does nothing.
+     */
+    public static synchronized void register() {
+        if (isRegistered) return;
+        isRegistered = true;
+        isMeasuringAllocation = true;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (MazeSolver.Type type : MazeSolver.Type.values())
+            try {
+                server.registerMBean(of(type), new ObjectName(
+                        "io.github.apollozhu.mazesolver:type=Solver,name=" + type.name()));
+            } catch (JMException e) {
+                Logger.getGlobal().log(Level.WARNING, "Can't register metrics of " + type.description(), e);
+            }
+    }
+
+    static void record(SolveMetrics metrics) {
+        if (metrics.getType() == null) return;
+        SolverMetrics total = of(metrics.getType());
+        total.solves.increment();
+        if (!metrics.isCompleted()) total.stopped.increment();
+        if (metrics.hasPath()) total.found.increment();
+        total.expanded.add(metrics.getExpanded());
+        total.failed.add(metrics.getFailed());
+        total.peakFrontier.accumulate(metrics.getPeakFrontier());
+        total.nanos.add(metrics.getNanos());
+        if (metrics.getAllocatedBytes() > 0) total.allocated.add(metrics.getAllocatedBytes());
+    }
+
+    /**
+     * @return bytes allocated by this thread so far, or -1 if not measuring or the JVM can't tell.
+     */
+    static long allocatedBytes() {
+        return !isMeasuringAllocation || Allocation.THREADS == null ? -1
+                : Allocation.THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Override
+    public long getSolves() {
+        return solves.sum();
+    }
+
+    @Override
+    public long getStoppedSolves() {
+        return stopped.sum();
+    }
+
+    @Override
+    public long getPathsFound() {
+        return found.sum();
+    }
+
+    @Override
+    public long getCellsExpanded() {
+        return expanded.sum();
+    }
+
+    @Override
+    public long getCellsFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public int getPeakFrontier() {
+        return (int) peakFrontier.get();
+    }
+
+    @Override
+    public long getTotalNanos() {
+        return nanos.sum();
+    }
+
+    @Override
+    public double getAverageMillis() {
+        long solves = getSolves();
+        return solves == 0 ? 0 : getTotalNanos() / 1e6 / solves;
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocated.sum();
+    }
+
+    @Override
+    public void reset() {
+        solves.reset();
+        stopped.reset();
+        found.reset();
+        expanded.reset();
+        failed.reset();
+        peakFrontier.reset();
+        nanos.reset();
+        allocated.reset();
+    }
+
+    // Looked up on the first solve after metrics are registered.
+    private static class Allocation {
+        static final com.sun.management.ThreadMXBean THREADS;
+
+        static {
+            java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            THREADS = threads instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+                    && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled()
+                    ? (com.sun.management.ThreadMXBean) threads : null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.apollozhu.mazesolver.solver;
+
+/**
+ * Totals of every solve by one type of solver since start or the last reset,
+ * as seen in JConsole under {@code io.github.apollozhu.mazesolver:type=Solver}.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public interface SolverMetricsMXBean {
+    long getSolves();
+
+    long getStoppedSolves();
+
+    long getPathsFound();
+
+    long getCellsExpanded();
+
+    long getCellsFailed();
+
+    int getPeakFrontier();
+
+    long getTotalNanos();
+
+    double getAverageMillis();
+
+    long getAllocatedBytes();
+
+    void reset();
+}
@@ -49,6 +49,7 @@ public class StackBasedDFSMazeSolver extends MazeSolver {
             if (curLocation.equals(end)) {
                 hasPath = true;
                 set(tR, tC, MazeBlock.PATH);
+                reportPathLength(path.size());
                 forEachListener(l -> l.found(tR, tC, path, getGrid()));
                 break;
             }
@@ -57,6 +58,7 @@ public class StackBasedDFSMazeSolver extends MazeSolver {
                 path.push(curStep);
                 set(curLocation, MazeBlock.PATH);
                 pushAllNextStepsFrom(curLocation, end);
+                reportFrontier(pending.size());
             } else while (!pending.isEmpty() && path.peek().getDirection() != Direction.NONE
                     && !path.peek().getEnd().equals(pending.peek().getStart())) {
                 Step step = path.pop();
@@ -55,6 +55,7 @@ public class StackBasedMazeSolver extends MazeSolver {
     private boolean isAtTarget(Stack<Step> steps, MazeBlock.Location end) {
         if (steps.peek().getEnd().equals(end)) {
             set(end, MazeBlock.PATH);
+            reportPathLength(steps.size() - 1);
             forEachListener(l -> l.found(end.getR(), end.getC(), steps, getGrid()));
             return true;
         }
@@ -92,6 +93,7 @@ public class StackBasedMazeSolver extends MazeSolver {
             break;
         }
         steps.push(nextStep);
+        reportFrontier(steps.size());
         return true;
     }
 }
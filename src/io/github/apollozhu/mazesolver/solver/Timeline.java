@@ -0,0 +1,247 @@
+package io.github.apollozhu.mazesolver.solver;
+
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.model.PackedMaze;
+
+import java.util.Arrays;
+
+/**
+ * Records a solve so it can be watched again from any step. Each event keeps
+ * the blocks that changed since the one before, and a packed copy of the maze
+ * is kept every few events, so getting to any step only replays the events
+ * since the closest copy. When there are too many copies, every other one
+ * is dropped and the spacing doubles, so they never take more than
+ * about maxKeyframes mazes of memory.
+ * <p>
+ * Solvers change a block right before or after telling about it,
+ * so step k is the maze as it was when event k was fired.
+ * Recording happens on the solving thread, and a recorded step
+ * may be read from other threads while it runs. Events from any other
+ * thread, like stopping a solver from outside, aren't recorded.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class Timeline implements MazeSolver.MSEventListener<Object> {
+    public static final int DEFAULT_KEYFRAME_SPACING = 1024;
+    public static final int DEFAULT_MAX_KEYFRAMES = 64;
+    private static final Kind[] KINDS = Kind.values();
+    private static final MazeSolver.Direction[] DIRECTIONS = MazeSolver.Direction.values();
+    private static final MazeBlock[] BLOCKS = MazeBlock.values();
+    private final int initialSpacing, maxKeyframes;
+    private int rows, columns;
+    private PackedMaze shadow;
+    private Thread recorder;
+    private volatile Keyframes keyframes;
+    // Event k is at cells[k] and kinds[k], and changed deltas[deltaStarts[k] until deltaStarts[k + 1]].
+    private int[] cells = new int[64], deltaStarts = new int[65];
+    private byte[] kinds = new byte[64];
+    // Block << 4 | old << 2 | new.
+    private long[] deltas = new long[64];
+    private int deltaCount;
+    private volatile int size;
+    private volatile boolean hasPath;
+    // The block a trial heads for, which the solver marks after telling.
+    private int pendingCell = -1;
+
+    public Timeline() {
+        this(DEFAULT_KEYFRAME_SPACING, DEFAULT_MAX_KEYFRAMES);
+    }
+
+    /**
+     * @param keyframeSpacing events between two copies of the maze at first.
+     * @param maxKeyframes    copies to keep before they're spread further apart.
+     */
+    public Timeline(int keyframeSpacing, int maxKeyframes) {
+        this.initialSpacing = Math.max(keyframeSpacing, 1);
+        this.maxKeyframes = Math.max(maxKeyframes, 2);
+    }
+
+    /**
+     * @return number of recorded steps.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean hasPath() {
+        return hasPath;
+    }
+
+    public int getKeyframeSpacing() {
+        Keyframes keyframes = this.keyframes;
+        return keyframes == null ? initialSpacing : keyframes.spacing;
+    }
+
+    public Kind getKind(int step) {
+        return KINDS[kinds[step] & 7];
+    }
+
+    public MazeSolver.Direction getDirection(int step) {
+        return DIRECTIONS[kinds[step] >> 3];
+    }
+
+    /**
+     * @return row of the block the event is about, or -1 if there's none.
+     */
+    public int getR(int step) {
+        return cells[step] < 0 ? -1 : cells[step] / columns;
+    }
+
+    public int getC(int step) {
+        return cells[step] < 0 ? -1 : cells[step] % columns;
+    }
+
+    /**
+     * Forgets the recording, like for a different maze.
+     */
+    public void clear() {
+        size = 0;
+        keyframes = null;
+        shadow = null;
+        recorder = null;
+        hasPath = false;
+    }
+
+    /**
+     * Turns a map that's at one step into another step,
+     * from the closest keyframe if that's faster than going step by step.
+     */
+    public void seek(MazeBlock[][] map, int from, int to) {
+        int spacing = getKeyframeSpacing();
+        if (from < 0 || Math.abs(to - from) > spacing) {
+            restore(map, to);
+            return;
+        }
+        for (int step = from + 1; step <= to; step++) apply(map, step, true);
+        for (int step = from; step > to; step--) apply(map, step, false);
+    }
+
+    /**
+     * Fills the map with how it was at the step.
+     */
+    public void restore(MazeBlock[][] map, int step) {
+        Keyframes keyframes = this.keyframes;
+        int index = Math.min(step / keyframes.spacing, keyframes.count - 1);
+        PackedMaze keyframe = keyframes.frames[index];
+        for (int i = 0; i < rows; i++) keyframe.getRow(i, map[i]);
+        for (int k = index * keyframes.spacing + 1; k <= step; k++) apply(map, k, true);
+    }
+
+    // Forward goes from step - 1 to step, backward from step to step - 1.
+    private void apply(MazeBlock[][] map, int step, boolean isForward) {
+        for (int k = deltaStarts[step]; k < deltaStarts[step + 1]; k++) {
+            long delta = deltas[k];
+            int cell = (int) (delta >>> 4);
+            map[cell / columns][cell % columns] = BLOCKS[(int) (isForward ? delta : delta >>> 2) & 3];
+        }
+    }
+
+    private boolean isRecording() {
+        return shadow != null && recorder == Thread.currentThread();
+    }
+
+    private int cellOf(int r, int c) {
+        return r < 0 || c < 0 || r >= rows || c >= columns ? -1 : r * columns + c;
+    }
+
+    private void check(int cell, MazeBlock[][] map) {
+        if (cell < 0) return;
+        int r = cell / columns, c = cell % columns;
+        MazeBlock old = shadow.get(r, c), block = map[r][c];
+        if (old == block) return;
+        shadow.set(r, c, block);
+        if (deltaCount == deltas.length) deltas = Arrays.copyOf(deltas, deltaCount * 2);
+        deltas[deltaCount++] = (long) cell << 4 | old.ordinal() << 2 | block.ordinal();
+    }
+
+    private void record(Kind kind, int cell, MazeSolver.Direction direction, MazeBlock[][] map) {
+        int step = size;
+        check(pendingCell, map);
+        check(cell, map);
+        if (step == cells.length) {
+            cells = Arrays.copyOf(cells, step * 2);
+            kinds = Arrays.copyOf(kinds, step * 2);
+            deltaStarts = Arrays.copyOf(deltaStarts, step * 2 + 1);
+        }
+        cells[step] = cell;
+        kinds[step] = (byte) (direction.ordinal() << 3 | kind.ordinal());
+        deltaStarts[step + 1] = deltaCount;
+        if (step % keyframes.spacing == 0) addKeyframe(step);
+        size = step + 1;
+    }
+
+    private void addKeyframe(int step) {
+        Keyframes keyframes = this.keyframes;
+        if (keyframes.count == maxKeyframes) {
+            // Every other keyframe, which still has one for this step.
+            Keyframes thinned = new Keyframes(keyframes.spacing * 2, maxKeyframes);
+            for (int i = 0; i < keyframes.count; i += 2) thinned.frames[thinned.count++] = keyframes.frames[i];
+            this.keyframes = keyframes = thinned;
+            if (step % keyframes.spacing != 0) return;
+        }
+        keyframes.frames[keyframes.count] = shadow.copy();
+        keyframes.count++;
+    }
+
+    @Override
+    public void started(int r, int c, int tR, int tC, MazeBlock[][] map) {
+        rows = map.length;
+        columns = rows == 0 ? 0 : map[0].length;
+        size = 0;
+        deltaCount = 0;
+        hasPath = false;
+        shadow = PackedMaze.of(map);
+        recorder = Thread.currentThread();
+        keyframes = new Keyframes(initialSpacing, maxKeyframes);
+        pendingCell = -1;
+        record(Kind.STARTED, cellOf(r, c), MazeSolver.Direction.NONE, map);
+        // Some solvers mark the start after telling.
+        pendingCell = cellOf(r, c);
+    }
+
+    @Override
+    public void tryout(int r, int c, MazeSolver.Direction direction, Object path, MazeBlock[][] map) {
+        if (!isRecording()) return;
+        record(Kind.TRYOUT, cellOf(r, c), direction, map);
+        pendingCell = cellOf(r + direction.dx(), c + direction.dy());
+    }
+
+    @Override
+    public void found(int tR, int tC, Object path, MazeBlock[][] map) {
+        if (!isRecording()) return;
+        record(Kind.FOUND, cellOf(tR, tC), MazeSolver.Direction.NONE, map);
+        pendingCell = -1;
+    }
+
+    @Override
+    public void failed(int r, int c, Object path, MazeBlock[][] map) {
+        if (!isRecording()) return;
+        record(Kind.FAILED, cellOf(r, c), MazeSolver.Direction.NONE, map);
+        pendingCell = -1;
+    }
+
+    @Override
+    public void ended(boolean hasPath, MazeBlock[][] map) {
+        // Also told when whoever ran the solver stops it afterwards.
+        if (!isRecording() || size > 0 && getKind(size - 1) == Kind.ENDED) return;
+        this.hasPath = hasPath;
+        record(Kind.ENDED, -1, MazeSolver.Direction.NONE, map);
+        pendingCell = -1;
+    }
+
+    public enum Kind {
+        STARTED, TRYOUT, FOUND, FAILED, ENDED
+    }
+
+    private static class Keyframes {
+        private final int spacing;
+        private final PackedMaze[] frames;
+        // Only grows before the step it's for is published through size.
+        private int count;
+
+        Keyframes(int spacing, int capacity) {
+            this.spacing = spacing;
+            this.frames = new PackedMaze[capacity];
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package io.github.apollozhu.mazesolver.solver;
+
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Counts how many times a solver tries out of and fails at each block,
+ * so solvers can be compared by where their effort goes. Counts are
+ * written by the solving thread and may be read from others while it runs.
+ * <p>
+ * Counts can be saved as CSV, one line per block that was reached,
+ * or compactly as:
+ * <pre>
+ * MAGIC(4) VERSION(1) RESERVED(3) r(4) c(4) SIZE(4) COUNTS CRC32C(4)
+ * </pre>
+ * where COUNTS are the deflated tryouts and failures of every block,
+ * row by row, each as an unsigned LEB128 varint.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class VisitStatistics implements MazeSolver.MSEventListener<Object> {
+    public static final int MAGIC = 0x4D535441; // "MSTA"
+    public static final byte VERSION = 1;
+
+    private int rows, columns;
+    // Tryouts and failures of block k at 2k and 2k + 1, so readers only need one array.
+    private volatile int[] counts = new int[0];
+    private volatile int maxVisits;
+    private long totalTryouts, totalFailures;
+
+    public VisitStatistics() {
+    }
+
+    private VisitStatistics(int rows, int columns, int[] counts) {
+        this.rows = rows;
+        this.columns = columns;
+        this.counts = counts;
+        for (int k = 0; k < counts.length; k += 2) {
+            totalTryouts += counts[k];
+            totalFailures += counts[k + 1];
+            maxVisits = Math.max(maxVisits, counts[k] + counts[k + 1]);
+        }
+    }
+
+    public static VisitStatistics read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Statistics are too large");
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining())
+                if (channel.read(buffer) < 0) throw new EOFException("Statistics are truncated");
+            buffer.flip();
+            if (buffer.remaining() < 24 || buffer.getInt() != MAGIC) throw new IOException("Not visit statistics");
+            byte version = buffer.get();
+            if (version != VERSION) throw new IOException("Unsupported statistics version " + version);
+            buffer.position(buffer.position() + 3);
+            int rows = buffer.getInt(), columns = buffer.getInt(), compressedSize = buffer.getInt();
+            if (rows < 0 || columns < 0 || (long) rows * columns > Integer.MAX_VALUE / 2
+                    || compressedSize < 0 || compressedSize != buffer.remaining() - 4)
+                throw new IOException("Corrupted statistics");
+            byte[] compressed = new byte[compressedSize];
+            buffer.get(compressed);
+            CRC32C checksum = new CRC32C();
+            checksum.update(buffer.array(), 0, buffer.position());
+            if (buffer.getInt() != (int) checksum.getValue()) throw new IOException("Statistics checksum mismatch");
+            return new VisitStatistics(rows, columns, inflate(compressed, rows * columns * 2));
+        }
+    }
+
+    private static int[] inflate(byte[] compressed, int count) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int[] counts = new int[count];
+            byte[] chunk = new byte[64 * 1024];
+            int filled = 0, value = 0, shift = 0;
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(chunk);
+                if (inflated == 0 && inflater.needsInput()) throw new EOFException("Statistics are truncated");
+                for (int i = 0; i < inflated; i++) {
+                    if (shift > 28) throw new IOException("Corrupted statistics");
+                    value |= (chunk[i] & 0x7F) << shift;
+                    shift += 7;
+                    if (chunk[i] < 0) continue;
+                    if (filled == count) throw new IOException("Corrupted statistics");
+                    counts[filled++] = value;
+                    value = shift = 0;
+                }
+            }
+            if (filled != count) throw new EOFException("Statistics are truncated");
+            return counts;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted statistics", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        int[] counts = this.counts;
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] varints = new byte[64 * 1024], chunk = new byte[64 * 1024];
+        int length = 0;
+        for (int value : counts) {
+            if (length > varints.length - 5) {
+                deflate(deflater, varints, length, out, chunk);
+                length = 0;
+            }
+            for (; (value & ~0x7F) != 0; value >>>= 7) varints[length++] = (byte) (value & 0x7F | 0x80);
+            varints[length++] = (byte) value;
+        }
+        deflate(deflater, varints, length, out, chunk);
+        deflater.finish();
+        while (!deflater.finished()) out.write(chunk, 0, deflater.deflate(chunk));
+        deflater.end();
+        byte[] compressed = out.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(20 + compressed.length + 4);
+        buffer.putInt(MAGIC).put(VERSION).put(new byte[3]);
+        buffer.putInt(rows).putInt(columns).putInt(compressed.length).put(compressed);
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) checksum.getValue()).flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    private static void deflate(Deflater deflater, byte[] input, int length,
+                                ByteArrayOutputStream out, byte[] chunk) {
+        deflater.setInput(input, 0, length);
+        while (!deflater.needsInput()) out.write(chunk, 0, deflater.deflate(chunk));
+    }
+
+    /**
+     * Writes "row,column,tryouts,failures" for every block the solver reached.
+     */
+    public void writeCSV(Path file) throws IOException {
+        int[] counts = this.counts;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            writer.write("row,column,tryouts,failures\n");
+            for (int k = 0; k < counts.length; k += 2) {
+                if (counts[k] == 0 && counts[k + 1] == 0) continue;
+                writer.write(k / 2 / columns + "," + k / 2 % columns + "," + counts[k] + "," + counts[k + 1] + "\n");
+            }
+        }
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return times the solver tried to go somewhere from the block.
+     */
+    public int getTryouts(int r, int c) {
+        return get(r, c, 0);
+    }
+
+    /**
+     * @return times the solver gave up on the block.
+     */
+    public int getFailures(int r, int c) {
+        return get(r, c, 1);
+    }
+
+    public int getVisits(int r, int c) {
+        return get(r, c, 0) + get(r, c, 1);
+    }
+
+    /**
+     * @return visits of the most visited block.
+     */
+    public int getMaxVisits() {
+        return maxVisits;
+    }
+
+    public long getTotalTryouts() {
+        return totalTryouts;
+    }
+
+    public long getTotalFailures() {
+        return totalFailures;
+    }
+
+    // A new solve may have changed the size while this is being read.
+    private int get(int r, int c, int offset) {
+        int[] counts = this.counts;
+        if (r < 0 || c < 0 || r >= rows || c >= columns) return 0;
+        int k = (r * columns + c) * 2 + offset;
+        return k < counts.length ? counts[k] : 0;
+    }
+
+    private void count(int r, int c, int offset) {
+        if (r < 0 || c < 0 || r >= rows || c >= columns) return;
+        int[] counts = this.counts;
+        int k = (r * columns + c) * 2;
+        counts[k + offset]++;
+        int visits = counts[k] + counts[k + 1];
+        if (visits > maxVisits) maxVisits = visits;
+    }
+
+    /**
+     * Forgets the counts, like for a different maze.
+     */
+    public void clear() {
+        rows = columns = 0;
+        counts = new int[0];
+        maxVisits = 0;
+        totalTryouts = totalFailures = 0;
+    }
+
+    @Override
+    public void started(int r, int c, int tR, int tC, MazeBlock[][] map) {
+        int rows = map.length, columns = rows == 0 ? 0 : map[0].length;
+        if (rows * columns * 2 == counts.length) Arrays.fill(counts, 0);
+        else counts = new int[rows * columns * 2];
+        this.rows = rows;
+        this.columns = columns;
+        maxVisits = 0;
+        totalTryouts = totalFailures = 0;
+    }
+
+    @Override
+    public void tryout(int r, int c, MazeSolver.Direction direction, Object path, MazeBlock[][] map) {
+        totalTryouts++;
+        count(r, c, 0);
+    }
+
+    @Override
+    public void found(int tR, int tC, Object path, MazeBlock[][] map) {
+    }
+
+    @Override
+    public void failed(int r, int c, Object path, MazeBlock[][] map) {
+        totalFailures++;
+        count(r, c, 1);
+    }
+
+    @Override
+    public void ended(boolean hasPath, MazeBlock[][] map) {
+    }
+}
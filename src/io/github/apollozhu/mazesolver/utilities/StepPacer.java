@@ -0,0 +1,67 @@
+package io.github.apollozhu.mazesolver.utilities;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spaces out steps to a fixed rate. It only waits when ahead of schedule,
+ * so time spent in each step doesn't slow the rate down.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class StepPacer {
+    // Falling further behind than this starts over instead of rushing to catch up.
+    private static final long MAX_LAG = TimeUnit.MILLISECONDS.toNanos(100);
+    private volatile double stepsPerSecond;
+    private volatile boolean isReset = true;
+    private long startTime;
+    private double steps;
+
+    /**
+     * @param stepsPerSecond {@link Double#POSITIVE_INFINITY} to never wait.
+     */
+    public StepPacer(double stepsPerSecond) {
+        this.stepsPerSecond = stepsPerSecond;
+    }
+
+    public double getStepsPerSecond() {
+        return stepsPerSecond;
+    }
+
+    public void setStepsPerSecond(double stepsPerSecond) {
+        this.stepsPerSecond = stepsPerSecond;
+        reset();
+    }
+
+    /**
+     * Starts the schedule over from the next step, like after a pause.
+     */
+    public void reset() {
+        isReset = true;
+    }
+
+    /**
+     * Waits until it's time for the given number of steps to be done.
+     */
+    public void pace(int count) {
+        double rate = stepsPerSecond;
+        if (Double.isInfinite(rate)) return;
+        long now = System.nanoTime();
+        if (isReset) {
+            isReset = false;
+            startTime = now;
+            steps = 0;
+        }
+        steps += count;
+        long deadline = startTime + (long) (steps / rate * 1e9);
+        if (now - deadline > MAX_LAG) {
+            startTime = now;
+            steps = 0;
+            return;
+        }
+        for (long wait; (wait = deadline - System.nanoTime()) > 0; ) {
+            LockSupport.parkNanos(wait);
+            if (Thread.interrupted()) return;
+        }
+    }
+}
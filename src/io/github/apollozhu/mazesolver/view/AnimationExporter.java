@@ -0,0 +1,311 @@
+package io.github.apollozhu.mazesolver.view;
+
+import io.github.apollozhu.mazesolver.model.Maze;
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.solver.MazeSolver;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.*;
+
+/**
+ * Records a solve as an animated GIF or numbered PNG frames without a window.
+ * The solver runs at full speed on the calling thread, an off-screen
+ * {@link MazeCanvas} is captured every few events, and frames are encoded
+ * by a thread pool while solving continues.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class AnimationExporter {
+    // How long the finished maze stays on screen before a GIF loops.
+    private static final int FINAL_FRAME_DELAY = 2000;
+    private final Format format;
+    private final int side, eventsPerFrame, frameDelay;
+
+    /**
+     * @param side           pixels per block.
+     * @param eventsPerFrame solver events between two frames.
+     * @param frameDelay     milliseconds each frame is shown in a GIF.
+     */
+    public AnimationExporter(Format format, int side, int eventsPerFrame, int frameDelay) {
+        this.format = format;
+        this.side = Math.max(side, 1);
+        this.eventsPerFrame = Math.max(eventsPerFrame, 1);
+        this.frameDelay = frameDelay;
+    }
+
+    /**
+     * Solves a copy of the map, leaving the original alone.
+     *
+     * @param output the GIF file, or the folder for frame-00000.png and so on.
+     * @return whether there's a path.
+     */
+    public boolean export(MazeSolver solver, MazeBlock[][] map,
+                          MazeBlock.Location start, MazeBlock.Location end, Path output) throws IOException {
+        MazeBlock[][] copy = new MazeBlock[map.length][];
+        for (int i = 0; i < map.length; i++) copy[i] = map[i].clone();
+        Maze.clear(copy);
+        MazeCanvas canvas = new MazeCanvas(copy);
+        // One more pixel for the grid lines on the right and bottom.
+        canvas.setSize(copy[0].length * side + 1, copy.length * side + 1);
+        canvas.setStart(start);
+        canvas.setTarget(end);
+        try (Encoder encoder = new Encoder(format == Format.GIF ? new GifSink(output) : new PngSink(output))) {
+            MazeSolver.MSEventListener<Object> capture = new MazeSolver.MSEventListener<Object>() {
+                private int events;
+
+                @Override
+                public void started(int r, int c, int tR, int tC, MazeBlock[][] map) {
+                    encoder.submit(render(canvas), frameDelay);
+                }
+
+                @Override
+                public void tryout(int r, int c, MazeSolver.Direction direction, Object path, MazeBlock[][] map) {
+                    captureIfNeeded();
+                }
+
+                @Override
+                public void found(int tR, int tC, Object path, MazeBlock[][] map) {
+                    captureIfNeeded();
+                }
+
+                @Override
+                public void failed(int r, int c, Object path, MazeBlock[][] map) {
+                    captureIfNeeded();
+                }
+
+                @Override
+                public void ended(boolean hasPath, MazeBlock[][] map) {
+                }
+
+                private void captureIfNeeded() {
+                    if (++events % eventsPerFrame == 0 && !encoder.hasFailed())
+                        encoder.submit(render(canvas), frameDelay);
+                }
+            };
+            // Listeners are told newest first, so the canvas draws each event before it's captured.
+            solver.addEventListener(capture);
+            solver.addEventListener(canvas);
+            try {
+                boolean hasPath = solver.start(copy, start.getR(), start.getC(), end.getR(), end.getC());
+                encoder.submit(render(canvas), FINAL_FRAME_DELAY);
+                return hasPath;
+            } finally {
+                solver.removeEventListener(capture);
+                solver.removeEventListener(canvas);
+            }
+        }
+    }
+
+    private static BufferedImage render(MazeCanvas canvas) {
+        BufferedImage frame = new BufferedImage(canvas.getWidth(), canvas.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        canvas.paint(g);
+        g.dispose();
+        return frame;
+    }
+
+    public enum Format {
+        GIF, PNG_SEQUENCE
+    }
+
+    /**
+     * Turns a frame into what gets written, called in parallel,
+     * then writes them one at a time in order.
+     */
+    private interface Sink extends AutoCloseable {
+        Object prepare(BufferedImage frame, int index) throws IOException;
+
+        void write(Object prepared, int index, int delay) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static class Encoder implements AutoCloseable {
+        private final Sink sink;
+        private final int threads = Runtime.getRuntime().availableProcessors();
+        private final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        private final ExecutorService writer = Executors.newSingleThreadExecutor();
+        // Frames waiting to be encoded, so a fast solver can't fill up the memory.
+        private final Semaphore pending = new Semaphore(threads * 2);
+        private CompletableFuture<Void> written = CompletableFuture.completedFuture(null);
+        private int frames;
+
+        Encoder(Sink sink) {
+            this.sink = sink;
+        }
+
+        void submit(BufferedImage frame, int delay) {
+            pending.acquireUninterruptibly();
+            int index = frames++;
+            CompletableFuture<Object> prepared = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return sink.prepare(frame, index);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, pool);
+            written = written.thenCombineAsync(prepared, (ignored, result) -> {
+                try {
+                    sink.write(result, index, delay);
+                    return null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, writer);
+            written.whenComplete((ignored, e) -> pending.release());
+        }
+
+        boolean hasFailed() {
+            return written.isCompletedExceptionally();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                written.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException)
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                throw new IOException("Failed to encode frames", e.getCause());
+            } finally {
+                pool.shutdown();
+                writer.shutdown();
+                sink.close();
+            }
+        }
+    }
+
+    private static class PngSink implements Sink {
+        private final Path folder;
+
+        PngSink(Path folder) throws IOException {
+            this.folder = Files.createDirectories(folder);
+        }
+
+        @Override
+        public Object prepare(BufferedImage frame, int index) throws IOException {
+            try (PngWriter png = PngWriter.open(folder.resolve(String.format("frame-%05d.png", index)),
+                    frame.getWidth(), frame.getHeight())) {
+                png.write(frame, frame.getHeight());
+            }
+            return null;
+        }
+
+        @Override
+        public void write(Object prepared, int index, int delay) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class GifSink implements Sink {
+        private static final String FORMAT = "javax_imageio_gif_image_1.0";
+        private final ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        private final ImageOutputStream output;
+
+        GifSink(Path file) throws IOException {
+            // The stream writes over the old file without truncating it.
+            Files.deleteIfExists(file);
+            output = ImageIO.createImageOutputStream(file.toFile());
+            writer.setOutput(output);
+            writer.prepareWriteSequence(null);
+        }
+
+        /**
+         * Mazes only use a handful of colors, so each frame gets an exact palette.
+         */
+        @Override
+        public Object prepare(BufferedImage frame, int index) {
+            int width = frame.getWidth(), height = frame.getHeight();
+            int[] pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+            byte[] indices = new byte[pixels.length];
+            int[] palette = new int[256];
+            int colors = 0, last = -1, lastIndex = 0;
+            for (int k = 0; k < pixels.length; k++) {
+                int rgb = pixels[k] & 0xFFFFFF;
+                if (rgb != last) {
+                    last = rgb;
+                    lastIndex = 0;
+                    while (lastIndex < colors && palette[lastIndex] != rgb) lastIndex++;
+                    if (lastIndex == colors) {
+                        if (colors == palette.length) return toDefaultPalette(frame);
+                        palette[colors++] = rgb;
+                    }
+                }
+                indices[k] = (byte) lastIndex;
+            }
+            IndexColorModel model = new IndexColorModel(8, Math.max(colors, 2), palette, 0, false, -1, DataBuffer.TYPE_BYTE);
+            WritableRaster raster = Raster.createInterleavedRaster(new DataBufferByte(indices, indices.length),
+                    width, height, width, 1, new int[]{0}, null);
+            return new BufferedImage(model, raster, false, null);
+        }
+
+        // Custom painters may use more colors than a GIF palette holds.
+        private static BufferedImage toDefaultPalette(BufferedImage frame) {
+            BufferedImage indexed = new BufferedImage(frame.getWidth(), frame.getHeight(),
+                    BufferedImage.TYPE_BYTE_INDEXED);
+            Graphics2D g = indexed.createGraphics();
+            g.drawImage(frame, 0, 0, null);
+            g.dispose();
+            return indexed;
+        }
+
+        @Override
+        public void write(Object prepared, int index, int delay) throws IOException {
+            BufferedImage image = (BufferedImage) prepared;
+            // Not createFromRenderedImage, which gives every TYPE_BYTE_INDEXED image the default palette.
+            IIOMetadata metadata = writer.getDefaultImageMetadata(
+                    new ImageTypeSpecifier(image.getColorModel(), image.getSampleModel()), null);
+            IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(FORMAT);
+            IIOMetadataNode control = child(root, "GraphicControlExtension");
+            control.setAttribute("disposalMethod", "none");
+            control.setAttribute("userInputFlag", "FALSE");
+            control.setAttribute("transparentColorFlag", "FALSE");
+            control.setAttribute("delayTime", Integer.toString(delay / 10));
+            control.setAttribute("transparentColorIndex", "0");
+            if (index == 0) {
+                // Loop forever.
+                IIOMetadataNode extension = new IIOMetadataNode("ApplicationExtension");
+                extension.setAttribute("applicationID", "NETSCAPE");
+                extension.setAttribute("authenticationCode", "2.0");
+                extension.setUserObject(new byte[]{1, 0, 0});
+                child(root, "ApplicationExtensions").appendChild(extension);
+            }
+            metadata.setFromTree(FORMAT, root);
+            writer.writeToSequence(new IIOImage(image, null, metadata), null);
+        }
+
+        private static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+            for (int i = 0; i < parent.getLength(); i++)
+                if (parent.item(i).getNodeName().equals(name)) return (IIOMetadataNode) parent.item(i);
+            IIOMetadataNode node = new IIOMetadataNode(name);
+            parent.appendChild(node);
+            return node;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                writer.endWriteSequence();
+            } finally {
+                output.close();
+                writer.dispose();
+            }
+        }
+    }
+}
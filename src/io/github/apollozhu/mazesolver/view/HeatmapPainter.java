@@ -0,0 +1,44 @@
+package io.github.apollozhu.mazesolver.view;
+
+import io.github.apollozhu.mazesolver.solver.VisitStatistics;
+
+import java.awt.*;
+
+/**
+ * Tints each block by how often the solver visited it, from pale yellow
+ * to dark red. Visits are on a log scale relative to the most visited block,
+ * since a few blocks near the start usually get most of them.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class HeatmapPainter implements BlockPainter {
+    private static final int LEVELS = 256;
+    private static final Color[] COLORS = new Color[LEVELS];
+
+    static {
+        for (int i = 0; i < LEVELS; i++) {
+            float t = i / (LEVELS - 1f);
+            // Yellow to red, then darker, getting more opaque as it heats up.
+            int red = 255 - (int) (Math.max(t - 0.5f, 0) * 2 * 116);
+            int green = (int) (230 * (1 - Math.min(t * 2, 1)));
+            COLORS[i] = new Color(red, green, 0, 48 + (int) (t * 96));
+        }
+    }
+
+    private final VisitStatistics statistics;
+
+    public HeatmapPainter(VisitStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void paintBlock(Graphics g, int r, int c, int x, int y, int w, int h) {
+        int visits = statistics.getVisits(r, c);
+        if (visits == 0) return;
+        int max = Math.max(statistics.getMaxVisits(), visits);
+        int level = max == 1 ? LEVELS - 1
+                : (int) (Math.log(visits) / Math.log(max) * (LEVELS - 1));
+        g.setColor(COLORS[level]);
+        g.fillRect(x + 1, y + 1, w - 1, h - 1);
+    }
+}
@@ -4,9 +4,15 @@ import io.github.apollozhu.mazesolver.model.MazeBlock;
 import io.github.apollozhu.mazesolver.solver.MazeSolver;
 
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * @author ApolloZhu, Pd. 1
@@ -25,29 +31,115 @@ public class MazeCanvas extends SnapshotablePanel
         g.drawLine(x + w * 4 / 5, y + h / 5,
                 x + w / 5, y + h * 4 / 5);
     };
+    private static final BlockPainter VISITED_PAINTER = (g, r, c, x, y, w, h) -> {
+        g.setColor(Color.orange);
+        g.drawLine(x + w / 2, y + h / 5,
+                x + w * 4 / 5, y + h * 4 / 5);
+        g.drawLine(x + w * 4 / 5, y + h * 4 / 5,
+                x + w / 5, y + h * 4 / 5);
+        g.drawLine(x + w / 5, y + h * 4 / 5,
+                x + w / 2, y + h / 5);
+    };
     private static final Color DIFF_COLOR_NEW = new Color(102, 204, 255);
     private static final Color COMMON_COLOR_FOUND = new Color(29, 135, 17);
     private static final Color COMMON_COLOR_NORMAL = Color.blue;
     private static final Color COMMON_COLOR_FAILED = Color.orange;
+    private static final Color[] COMMON_COLORS = {COMMON_COLOR_NORMAL, COMMON_COLOR_FOUND, COMMON_COLOR_FAILED};
+    private static final Color[] DIFF_COLORS = {DIFF_COLOR_NEW, COMMON_COLOR_FAILED};
+    private static final MazeSolver.Direction[] DIRECTIONS = MazeSolver.Direction.values();
+    // Sprites: walls and paths by the mask of neighbors they connect to, then single glyphs.
+    private static final int MASKS = 1 << 9;
+    private static final int SPRITE_WALL = 0, SPRITE_PATH = SPRITE_WALL + MASKS,
+            SPRITE_VISITED = SPRITE_PATH + COMMON_COLORS.length * MASKS,
+            SPRITE_START = SPRITE_VISITED + 1, SPRITE_TARGET = SPRITE_START + 1, SPRITES = SPRITE_TARGET + 1;
+    private static final double ZOOM_STEP = 1.25;
+    private static final int MAX_SIDE = 128;
+    // Below this block size glyphs are unreadable, so blocks become plain pixels.
+    private static final int DETAIL_SIDE = 4;
+    private static final int PARALLEL_BLOCKS = 1 << 18;
+    // Pixels in each strip of an exported image.
+    private static final int TILE_PIXELS = 1 << 22;
     List<BlockPainter> painters = new LinkedList<>();
+    // Cached per block size so painting doesn't redraw glyphs.
+    private SpriteAtlas glyphs, arrows;
     private MazeBlock[][] map;
-    private final BlockPainter wallPainter = dependentPainter(() -> Color.black,
-            (r, c, i, j) -> (i != r || j != c) && isWall(i, j));
     private Path[][] paths;
     private Color diffColor;
-    private final BlockPainter diffPainter = (graphics, r, c, x, y, w, h) -> {
-        Graphics2D g = (Graphics2D) graphics;
-        Path path = paths[r][c];
-        if (path == null) return; // In between trials
-        int headX = x + w / 2 + path.direction.dy() * w;
-        int headY = y + h / 2 + path.direction.dx() * h;
-        Stroke stroke = g.getStroke();
-        g.setStroke(new BasicStroke(w / 10, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-        g.setColor(diffColor);
+    private Color commonColor = COMMON_COLOR_NORMAL;
+    private Path diff = null;
+    private MazeBlock.Location start, end;
+    // Viewport: pixels per block and where block (0, 0) is drawn.
+    private int side, originX, originY;
+    private boolean isFitting = true;
+    private Point dragStart;
+    // Grid lines and walls only change with the map or the viewport, so they're drawn once.
+    private BufferedImage wallLayer;
+    private int layerSide, layerX, layerY;
+    // One pixel per visible block, scaled up when drawn.
+    private volatile Raster raster;
+    private volatile boolean isRasterStale = true;
+    // Block the last tryout stepped into, which the solver marks after the event.
+    private int pendingR = -1, pendingC = -1;
+    // Solver events only mark what changed; it's repainted once per frame.
+    private final RenderScheduler scheduler = new RenderScheduler(this);
+    // Painted and read on the event dispatch thread only.
+    private long paintNanos;
+
+    public MazeCanvas(MazeBlock[][] map) {
+        setMap(map);
+        addMouseWheelListener(e -> zoom(e.getX(), e.getY(), e.getPreciseWheelRotation()));
+        MouseAdapter panner = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart == null) return;
+                pan(e.getX() - dragStart.x, e.getY() - dragStart.y);
+                dragStart = e.getPoint();
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragStart = null;
+            }
+        };
+        addMouseListener(panner);
+        addMouseMotionListener(panner);
+    }
+
+    /**
+     * Draws lines from the center to each neighbor in the mask,
+     * or a diamond if there are none.
+     *
+     * @param mask bit 3 * (i - r + 1) + (j - c + 1) is set for a neighbor at (i, j).
+     */
+    private static void paintConnectors(Graphics g, int mask, int x, int y, int w, int h) {
+        int centerX = x + w / 2;
+        int centerY = y + h / 2;
+        for (int k = 0; k < 9; k++)
+            if ((mask & 1 << k) != 0) {
+                int vX = k % 3, vY = k / 3;
+                int lX = vX == 0 ? x : vX == 1 ? centerX : x + w;
+                int lY = vY == 0 ? y : vY == 1 ? centerY : y + h;
+                g.drawLine(lX, lY, centerX, centerY);
+            }
+        if (mask != 0) return;
+        g.drawLine(x, centerY, centerX, y);
+        g.drawLine(centerX, y, x + w, centerY);
+        g.drawLine(x + w, centerY, centerX, y + h);
+        g.drawLine(centerX, y + h, x, centerY);
+    }
+
+    private static void paintArrow(Graphics g, MazeSolver.Direction direction, int x, int y, int w, int h) {
+        int headX = x + w / 2 + direction.dy() * w;
+        int headY = y + h / 2 + direction.dx() * h;
         g.drawLine(x + w / 2, y + h / 2, headX, headY);
         int dX = w / 5;
         int dY = h / 5;
-        switch (path.direction) {
+        switch (direction) {
             case UP:
                 g.drawLine(headX, headY, headX + dX, headY + dY);
                 g.drawLine(headX, headY, headX - dX, headY + dY);
@@ -65,81 +157,66 @@ public class MazeCanvas extends SnapshotablePanel
                 g.drawLine(headX, headY, headX - dX, headY - dY);
                 break;
         }
-        g.setStroke(stroke);
-    };
-    private Color commonColor = COMMON_COLOR_NORMAL;
-    private final BlockPainter multiPathPainter = dependentPainter(() -> commonColor,
-            (r, c, i, j) -> (i == r || j == c) && isPath(i, j));
-    private Path diff = null;
-    private MazeBlock.Location start, end;
-    private final BlockPainter painter = (graphics, r, c, x, y, w, h) -> {
-        Graphics2D g = (Graphics2D) graphics;
+    }
 
-        g.setColor(Color.gray);
-        g.drawRect(x, y, w, h);
+    private static int indexOf(Color[] colors, Color color) {
+        for (int i = 0; i < colors.length; i++) if (colors[i] == color) return i;
+        return 0;
+    }
 
-        Stroke stroke = g.getStroke();
-        g.setStroke(new BasicStroke(w / 5, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+    /**
+     * @param isOrthogonal true for the block itself and the four sides,
+     *                     false for the eight blocks around it.
+     */
+    private int maskOf(int r, int c, MazeBlock block, boolean isOrthogonal) {
+        int mask = 0;
+        for (int i = r - 1, k = 0; i <= r + 1; i++)
+            for (int j = c - 1; j <= c + 1; j++, k++)
+                if ((isOrthogonal ? i == r || j == c : i != r || j != c) && get(i, j) == block)
+                    mask |= 1 << k;
+        return mask;
+    }
 
-        if (start != null && r == start.getR() && c == start.getC())
-            START_PAINTER.paintBlock(g, r, c, x, y, w, h);
-        if (end != null && r == end.getR() && c == end.getC()) {
-            TARGET_PAINTER.paintBlock(g, r, c, x, y, w, h);
-            g.setStroke(stroke);
-            return;
-        }
+    private static Stroke thickStroke(int side) {
+        return new BasicStroke(side / 5, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    }
 
-        switch (map[r][c]) {
-            case WALL:
-                wallPainter.paintBlock(g, r, c, x, y, w, h);
-                break;
-            case VISITED:
-                g.setColor(COMMON_COLOR_FAILED);
-                g.drawLine(x + w / 2, y + h / 5,
-                        x + w * 4 / 5, y + h * 4 / 5);
-                g.drawLine(x + w * 4 / 5, y + h * 4 / 5,
-                        x + w / 5, y + h * 4 / 5);
-                g.drawLine(x + w / 5, y + h * 4 / 5,
-                        x + w / 2, y + h / 5);
-                break;
-            case PATH:
-                g.setStroke(new BasicStroke(w / 10, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-                multiPathPainter.paintBlock(g, r, c, x, y, w, h);
-                break;
-            default:
-                break;
-        }
-        if (diff != null && diff.r == r && diff.c == c)
-            diffPainter.paintBlock(g, r, c, x, y, w, h);
-        g.setStroke(stroke);
-    };
+    private static Stroke thinStroke(int side) {
+        return new BasicStroke(side / 10, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    }
 
-    public MazeCanvas(MazeBlock[][] map) {
-        setMap(map);
+    private static void renderGlyph(Graphics2D g, int index, int side) {
+        g.setStroke(thickStroke(side));
+        if (index < SPRITE_PATH) {
+            g.setColor(Color.black);
+            paintConnectors(g, index - SPRITE_WALL, 0, 0, side, side);
+        } else if (index < SPRITE_VISITED) {
+            g.setStroke(thinStroke(side));
+            g.setColor(COMMON_COLORS[(index - SPRITE_PATH) / MASKS]);
+            paintConnectors(g, (index - SPRITE_PATH) % MASKS, 0, 0, side, side);
+        } else if (index == SPRITE_VISITED) {
+            VISITED_PAINTER.paintBlock(g, 0, 0, 0, 0, side, side);
+        } else if (index == SPRITE_START) {
+            START_PAINTER.paintBlock(g, 0, 0, 0, 0, side, side);
+        } else TARGET_PAINTER.paintBlock(g, 0, 0, 0, 0, side, side);
     }
 
-    private static BlockPainter dependentPainter(Supplier<Color> color, DiPredicate condition) {
-        return (graphics, r, c, x, y, w, h) -> {
-            Graphics2D g = (Graphics2D) graphics;
-            g.setColor(color.get());
-            int centerX = x + w / 2;
-            int centerY = y + h / 2;
-            boolean hasNeighbor = false;
-            for (int i = r - 1, k = 0; i <= r + 1; i++)
-                for (int j = c - 1; j <= c + 1; j++, k++)
-                    if (condition.test(r, c, i, j)) {
-                        hasNeighbor = true;
-                        int vX = k % 3, vY = k / 3;
-                        int lX = vX == 0 ? x : vX == 1 ? centerX : x + w;
-                        int lY = vY == 0 ? y : vY == 1 ? centerY : y + h;
-                        g.drawLine(lX, lY, centerX, centerY);
-                    }
-            if (hasNeighbor) return;
-            g.drawLine(x, centerY, centerX, y);
-            g.drawLine(centerX, y, x + w, centerY);
-            g.drawLine(x + w, centerY, centerX, y + h);
-            g.drawLine(centerX, y + h, x, centerY);
-        };
+    private static void renderArrow(Graphics2D g, int index, int side) {
+        g.setStroke(thinStroke(side));
+        g.setColor(DIFF_COLORS[index / 4]);
+        paintArrow(g, DIRECTIONS[index % 4], 0, 0, side, side);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        scheduler.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        scheduler.stop();
+        super.removeNotify();
     }
 
     public boolean isWall(int r, int c) {
@@ -151,21 +228,25 @@ public class MazeCanvas extends SnapshotablePanel
     }
 
     public MazeBlock get(int r, int c) {
-        try {
-            return map[r][c];
-        } catch (Exception e) {
-            return MazeBlock.WALL;
-        }
+        if (r < 0 || c < 0 || r >= map.length || c >= map[r].length) return MazeBlock.WALL;
+        return map[r][c];
     }
 
     public void resetMap(MazeBlock[][] map) {
-        this.map = map;
+        setMap(map);
         reset();
-        repaint();
     }
 
+    /**
+     * Call after changing walls, so they get drawn again.
+     * A maze of a different size is fitted to the window.
+     */
     public void setMap(MazeBlock[][] map) {
+        if (this.map == null || map.length != this.map.length
+                || map.length != 0 && map[0].length != this.map[0].length) isFitting = true;
         this.map = map;
+        wallLayer = null;
+        isRasterStale = true;
         repaint();
     }
 
@@ -177,52 +258,311 @@ public class MazeCanvas extends SnapshotablePanel
         painters.remove(painter);
     }
 
-    private int getSide() {
-        if (map == null || map.length == 0 || map[0].length == 0) return 0;
-        return Math.min(getWidth() / map[0].length, getHeight() / map.length);
+    /**
+     * Zooms around a point, keeping the block under it in place.
+     *
+     * @param rotation negative to zoom in, positive to zoom out.
+     */
+    public void zoom(int x, int y, double rotation) {
+        if (!updateViewport()) return;
+        int newSide = (int) Math.round(side * Math.pow(ZOOM_STEP, -rotation));
+        if (newSide == side) newSide += rotation < 0 ? 1 : -1;
+        newSide = Math.max(Math.min(newSide, Math.max(MAX_SIDE, side)), 1);
+        originX = (int) (x - (long) (x - originX) * newSide / side);
+        originY = (int) (y - (long) (y - originY) * newSide / side);
+        side = newSide;
+        isFitting = false;
+        repaint();
+    }
+
+    public void pan(int dx, int dy) {
+        originX += dx;
+        originY += dy;
+        repaint();
+    }
+
+    /**
+     * Goes back to showing as much of the maze as fits in the window.
+     */
+    public void fitToWindow() {
+        isFitting = true;
+        repaint();
+    }
+
+    /**
+     * @return false if there's nothing to show.
+     */
+    private boolean updateViewport() {
+        if (map == null || map.length == 0 || map[0].length == 0) return false;
+        if (isFitting) side = Math.max(Math.min(getWidth() / map[0].length, getHeight() / map.length), 1);
+        originX = clampOrigin(originX, getWidth(), map[0].length);
+        originY = clampOrigin(originY, getHeight(), map.length);
+        return true;
+    }
+
+    // Centers the maze if it fits, otherwise keeps the window filled.
+    private int clampOrigin(int origin, int length, int blocks) {
+        long size = (long) side * blocks;
+        if (size <= length) return (int) ((length - size) / 2);
+        return (int) Math.max(Math.min(origin, 0), length - size);
+    }
+
+    private void updateSprites(int side) {
+        if (glyphs != null && glyphs.getSide() == side) return;
+        glyphs = newGlyphs(side);
+        arrows = newArrows(side);
+    }
+
+    private static SpriteAtlas newGlyphs(int side) {
+        return new SpriteAtlas(side, SPRITES, 0, MazeCanvas::renderGlyph);
+    }
+
+    // Arrows point into the next block.
+    private static SpriteAtlas newArrows(int side) {
+        return new SpriteAtlas(side, DIFF_COLORS.length * 4, 1, MazeCanvas::renderArrow);
+    }
+
+    /**
+     * @return how long painting the last frame took.
+     */
+    public long getPaintNanos() {
+        return paintNanos;
     }
 
     @Override
     protected void paintComponent(Graphics g) {
+        long begin = System.nanoTime();
         super.paintComponent(g);
-        if (map == null || map.length == 0 || map[0].length == 0) return;
-        int side = getSide();
-        int xOffset = (getWidth() - side * map[0].length) / 2;
-        int yOffset = (getHeight() - side * map.length) / 2;
-        for (int j = 0; j < map[0].length; j++)
-            for (int i = 0; i < map.length; i++) {
-                int r = i, c = j;
-                int x = xOffset + side * j;
-                int y = yOffset + side * i;
-                painter.paintBlock(g, r, c, x, y, side, side);
-                painters.forEach(l -> l.paintBlock(g, r, c, x, y, side, side));
+        paintMaze(g);
+        paintNanos = System.nanoTime() - begin;
+    }
+
+    private void paintMaze(Graphics g) {
+        if (!updateViewport()) return;
+        int side = this.side;
+        if (side < DETAIL_SIDE) {
+            paintRaster(g);
+            return;
+        }
+        updateSprites(side);
+        g.drawImage(getWallLayer(), 0, 0, null);
+        // Glyphs reach into neighboring blocks, so paint one more block around the clip.
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(getWidth(), getHeight());
+        int fromR = Math.max(Math.floorDiv(clip.y - originY, side) - 1, 0);
+        int fromC = Math.max(Math.floorDiv(clip.x - originX, side) - 1, 0);
+        int toR = Math.min(Math.floorDiv(clip.y + clip.height - originY, side) + 1, map.length - 1);
+        int toC = Math.min(Math.floorDiv(clip.x + clip.width - originX, side) + 1, map[0].length - 1);
+        paintBlocks(g, glyphs, arrows, originX, originY, fromR, fromC, toR, toC);
+    }
+
+    /**
+     * Paints the solve over blocks in the range, with block (0, 0) at (x, y).
+     */
+    private void paintBlocks(Graphics g, SpriteAtlas glyphs, SpriteAtlas arrows,
+                             int x, int y, int fromR, int fromC, int toR, int toC) {
+        int side = glyphs.getSide();
+        for (int j = fromC; j <= toC; j++)
+            for (int i = fromR; i <= toR; i++) {
+                int blockX = x + side * j;
+                int blockY = y + side * i;
+                paintBlock(g, glyphs, arrows, i, j, blockX, blockY);
+                for (BlockPainter l : painters) l.paintBlock(g, i, j, blockX, blockY, side, side);
             }
     }
 
+    private void paintBlock(Graphics g, SpriteAtlas glyphs, SpriteAtlas arrows, int r, int c, int x, int y) {
+        if (start != null && r == start.getR() && c == start.getC())
+            glyphs.draw(g, SPRITE_START, x, y);
+        if (end != null && r == end.getR() && c == end.getC()) {
+            glyphs.draw(g, SPRITE_TARGET, x, y);
+            return;
+        }
+
+        switch (map[r][c]) {
+            case VISITED:
+                glyphs.draw(g, SPRITE_VISITED, x, y);
+                break;
+            case PATH:
+                glyphs.draw(g, SPRITE_PATH + indexOf(COMMON_COLORS, commonColor) * MASKS
+                        + maskOf(r, c, MazeBlock.PATH, true), x, y);
+                break;
+            default:
+                break;
+        }
+        if (diff != null && diff.r == r && diff.c == c) {
+            Path path = paths[r][c];
+            if (path == null || path.direction == MazeSolver.Direction.NONE) return; // In between trials
+            arrows.draw(g, indexOf(DIFF_COLORS, diffColor) * 4 + path.direction.ordinal(), x, y);
+        }
+    }
+
+    /**
+     * Paints grid lines and walls in the range, with block (0, 0) at (x, y).
+     */
+    private void paintWalls(Graphics g, SpriteAtlas glyphs, int x, int y, int fromR, int fromC, int toR, int toC) {
+        int side = glyphs.getSide();
+        int left = x + side * fromC, right = x + side * (toC + 1);
+        int top = y + side * fromR, bottom = y + side * (toR + 1);
+        g.setColor(Color.gray);
+        for (int i = fromR; i <= toR + 1; i++) g.drawLine(left, y + side * i, right, y + side * i);
+        for (int j = fromC; j <= toC + 1; j++) g.drawLine(x + side * j, top, x + side * j, bottom);
+        for (int i = fromR; i <= toR; i++)
+            for (int j = fromC; j <= toC; j++)
+                if (map[i][j] == MazeBlock.WALL)
+                    glyphs.draw(g, SPRITE_WALL + maskOf(i, j, MazeBlock.WALL, false), x + side * j, y + side * i);
+    }
+
+    /**
+     * Renders the whole maze and the solve at the given block size into a PNG.
+     * It's done one strip at a time, so memory doesn't grow with the number of rows.
+     * Below 4 pixels per block, blocks are plain colors like the overview.
+     */
+    public void exportImage(java.nio.file.Path file, int side) throws IOException {
+        if (map == null || map.length == 0 || map[0].length == 0) throw new IOException("There's no maze");
+        if (side < 1) throw new IOException("Blocks must be at least 1 pixel");
+        int rows = map.length, columns = map[0].length;
+        boolean isDetailed = side >= DETAIL_SIDE;
+        // Detailed images get one more pixel for the grid lines on the right and bottom.
+        int border = isDetailed ? 1 : 0;
+        long width = (long) columns * side + border, height = (long) rows * side + border;
+        if (width > Integer.MAX_VALUE || height > Integer.MAX_VALUE) throw new IOException("Image is too large");
+        int stripRows = (int) Math.max(Math.min(TILE_PIXELS / width / side, rows), 1);
+        BufferedImage tile = new BufferedImage((int) width, stripRows * side + border, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) tile.getRaster().getDataBuffer()).getData();
+        SpriteAtlas glyphs = isDetailed ? newGlyphs(side) : null, arrows = isDetailed ? newArrows(side) : null;
+        try (PngWriter png = PngWriter.open(file, (int) width, (int) height)) {
+            for (int fromR = 0; fromR < rows; fromR += stripRows) {
+                int toR = Math.min(fromR + stripRows, rows) - 1;
+                if (isDetailed) {
+                    Graphics2D g = tile.createGraphics();
+                    g.setColor(getBackground());
+                    g.fillRect(0, 0, tile.getWidth(), tile.getHeight());
+                    // Blocks just outside the strip still reach into it.
+                    int y = -side * fromR, paintFromR = Math.max(fromR - 1, 0), paintToR = Math.min(toR + 1, rows - 1);
+                    paintWalls(g, glyphs, 0, y, paintFromR, 0, paintToR, columns - 1);
+                    paintBlocks(g, glyphs, arrows, 0, y, paintFromR, 0, paintToR, columns - 1);
+                    g.dispose();
+                } else for (int i = fromR; i <= toR; i++) {
+                    int line = (i - fromR) * side * tile.getWidth();
+                    for (int j = 0; j < columns; j++) Arrays.fill(pixels, line + side * j, line + side * (j + 1), rgbOf(i, j));
+                    for (int y = 1; y < side; y++)
+                        System.arraycopy(pixels, line, pixels, line + y * tile.getWidth(), tile.getWidth());
+                }
+                png.write(tile, (toR - fromR + 1) * side + (toR == rows - 1 ? border : 0));
+            }
+        }
+    }
+
+    /**
+     * Draws the overview, where custom painters and trial arrows are skipped.
+     */
+    private void paintRaster(Graphics g) {
+        int fromR = Math.max(Math.floorDiv(-originY, side), 0);
+        int fromC = Math.max(Math.floorDiv(-originX, side), 0);
+        int toR = Math.min(Math.floorDiv(getHeight() - 1 - originY, side), map.length - 1);
+        int toC = Math.min(Math.floorDiv(getWidth() - 1 - originX, side), map[0].length - 1);
+        if (fromR > toR || fromC > toC) return;
+        Raster raster = this.raster;
+        if (isRasterStale || raster == null || raster.r != fromR || raster.c != fromC
+                || raster.rows != toR - fromR + 1 || raster.columns != toC - fromC + 1) {
+            // Rendering reads the map after this, so updates from the solver aren't lost.
+            isRasterStale = false;
+            this.raster = raster = new Raster(raster, fromR, fromC, toR - fromR + 1, toC - fromC + 1);
+            fillRaster(raster);
+        }
+        g.drawImage(raster.image, originX + side * fromC, originY + side * fromR,
+                side * raster.columns, side * raster.rows, null);
+    }
+
+    private void fillRaster(Raster raster) {
+        IntStream rows = IntStream.range(0, raster.rows);
+        if ((long) raster.rows * raster.columns >= PARALLEL_BLOCKS) rows = rows.parallel();
+        rows.forEach(i -> {
+            int r = raster.r + i;
+            for (int j = 0, k = i * raster.columns; j < raster.columns; j++, k++)
+                raster.pixels[k] = rgbOf(r, raster.c + j);
+        });
+    }
+
+    private int rgbOf(int r, int c) {
+        if (start != null && r == start.getR() && c == start.getC()
+                || end != null && r == end.getR() && c == end.getC()) return Color.red.getRGB();
+        switch (map[r][c]) {
+            case WALL:
+                return Color.black.getRGB();
+            case VISITED:
+                return COMMON_COLOR_FAILED.getRGB();
+            case PATH:
+                return commonColor.getRGB();
+            default:
+                return getBackground().getRGB();
+        }
+    }
+
+    // Called from the solver thread; a block outside the overview is drawn when it's rebuilt.
+    private void updateRaster(int r, int c) {
+        Raster raster = this.raster;
+        if (raster == null || isRasterStale) return;
+        int i = r - raster.r, j = c - raster.c;
+        if (i >= 0 && j >= 0 && i < raster.rows && j < raster.columns)
+            raster.pixels[i * raster.columns + j] = rgbOf(r, c);
+    }
+
+    private BufferedImage getWallLayer() {
+        int width = getWidth(), height = getHeight();
+        boolean isSameSize = wallLayer != null
+                && wallLayer.getWidth() == width && wallLayer.getHeight() == height;
+        if (isSameSize && layerSide == side && layerX == originX && layerY == originY) return wallLayer;
+        if (!isSameSize) wallLayer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        layerSide = side;
+        layerX = originX;
+        layerY = originY;
+        Graphics2D g = wallLayer.createGraphics();
+        g.setColor(getBackground());
+        g.fillRect(0, 0, width, height);
+        // Only blocks in the window, so panning a huge maze costs the same as a small one.
+        int fromR = Math.max(Math.floorDiv(-originY, side) - 1, 0);
+        int fromC = Math.max(Math.floorDiv(-originX, side) - 1, 0);
+        int toR = Math.min(Math.floorDiv(height - originY, side) + 1, map.length - 1);
+        int toC = Math.min(Math.floorDiv(width - originX, side) + 1, map[0].length - 1);
+        paintWalls(g, glyphs, originX, originY, fromR, fromC, toR, toC);
+        g.dispose();
+        return wallLayer;
+    }
+
+    /**
+     * Repaints the block and its neighbors, which its glyphs may reach into.
+     */
+    private void repaintAround(int r, int c) {
+        int side = this.side;
+        if (side == 0) return;
+        scheduler.repaint(originX + side * (c - 1), originY + side * (r - 1), side * 3 + 1, side * 3 + 1);
+    }
+
     public MazeBlock.Location getLoc(int x, int y) {
-        if (map == null || map.length == 0 || map[0].length == 0) return null;
-        int side = Math.min(getWidth() / map[0].length,
-                getHeight() / map.length);
-        int xOffset = (getWidth() - side * map[0].length) / 2;
-        int yOffset = (getHeight() - side * map.length) / 2;
-        int r = (y - yOffset) / side;
-        int c = (x - xOffset) / side;
+        if (!updateViewport()) return null;
+        int r = Math.floorDiv(y - originY, side);
+        int c = Math.floorDiv(x - originX, side);
         if (r < 0 || c < 0 || r >= map.length || c >= map[0].length) return null;
         return new MazeBlock.Location(r, c);
     }
 
     public void setStart(MazeBlock.Location start) {
         this.start = start;
+        isRasterStale = true;
         repaint();
     }
 
     public void setTarget(MazeBlock.Location target) {
         this.end = target;
+        isRasterStale = true;
         repaint();
     }
 
     protected void reset() {
         commonColor = COMMON_COLOR_NORMAL;
+        pendingR = pendingC = -1;
         this.paths = new Path[map.length][map[0].length];
     }
 
@@ -236,34 +576,67 @@ public class MazeCanvas extends SnapshotablePanel
     @Override
     public void tryout(int r, int c, MazeSolver.Direction direction, Object path, MazeBlock[][] map) {
         diffColor = DIFF_COLOR_NEW;
+        Path last = diff;
         paths[r][c] = diff = new Path(r, c, direction);
-        setMap(map);
+        this.map = map;
+        updateRaster(r, c);
+        updateRaster(pendingR, pendingC);
+        pendingR = r + direction.dx();
+        pendingC = c + direction.dy();
+        if (last != null) repaintAround(last.r, last.c);
+        repaintAround(r, c);
     }
 
     @Override
     public void found(int tR, int tC, Object path, MazeBlock[][] map) {
         commonColor = COMMON_COLOR_FOUND;
         diff = null;
-        setMap(map);
+        this.map = map;
+        isRasterStale = true;
+        scheduler.repaintAll();
     }
 
     @Override
     public void failed(int r, int c, Object path, MazeBlock[][] map) {
         diffColor = COMMON_COLOR_FAILED;
+        Path last = diff;
         diff = paths[r][c];
         paths[r][c] = null;
-        setMap(map);
+        this.map = map;
+        updateRaster(r, c);
+        updateRaster(pendingR, pendingC);
+        if (last != null) repaintAround(last.r, last.c);
+        repaintAround(r, c);
     }
 
     @Override
     public void ended(boolean hasPath, MazeBlock[][] map) {
+        showResult(map, hasPath);
+    }
+
+    public void showResult(MazeBlock[][] map, boolean hasPath) {
         commonColor = hasPath ? COMMON_COLOR_FOUND : COMMON_COLOR_FAILED;
         diff = null;
-        setMap(map);
+        this.map = map;
+        isRasterStale = true;
+        scheduler.repaintAll();
     }
 
-    private interface DiPredicate {
-        boolean test(int r, int c, int i, int j);
+    private static class Raster {
+        private final BufferedImage image;
+        private final int[] pixels;
+        private final int r, c, rows, columns;
+
+        // Reuses the old image when only the position changed, which is the case while panning.
+        Raster(Raster old, int r, int c, int rows, int columns) {
+            this.image = old != null && old.rows == rows && old.columns == columns
+                    ? old.image : new BufferedImage(columns, rows, BufferedImage.TYPE_INT_RGB);
+            this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            this.r = r;
+            this.c = c;
+            this.rows = rows;
+            this.columns = columns;
+        }
     }
 
     private static class Path {
@@ -0,0 +1,156 @@
+package io.github.apollozhu.mazesolver.view;
+
+import io.github.apollozhu.mazesolver.model.MazeBlock;
+import io.github.apollozhu.mazesolver.solver.MazeSolver;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Live numbers of the running solve: steps per second, events so far,
+ * the frontier over the last few seconds, memory in use and how long
+ * the canvas took to paint. Events only bump counters; everything else
+ * is sampled and drawn a few times a second, so it can't slow the solve down.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class PerformanceHud extends JComponent implements MazeSolver.MSEventListener<Object> {
+    static final int SAMPLES_PER_SECOND = 4;
+    // 15 seconds of frontier sizes.
+    private static final int HISTORY = 60;
+    private static final int PADDING = 6, SPARKLINE_HEIGHT = 32;
+    private static final Color BACKGROUND = new Color(0, 0, 0, 160), SPARKLINE = new Color(102, 204, 255);
+    private static final String[] LABELS = {"Steps/s", "Events", "Frontier", "Memory", "Frame"};
+    private final MazeCanvas canvas;
+    private final Timer timer = new Timer(1000 / SAMPLES_PER_SECOND, ignored -> sample());
+    private MazeSolver solver;
+    // Only written by the solving thread; samples may see them a little late.
+    private long tryouts, events, startTryouts, startEvents;
+    private int solves;
+    // Sampled on the event dispatch thread.
+    private final int[] frontiers = new int[HISTORY];
+    private int sampleCount, seenSolves;
+    private long lastTryouts, lastNanos;
+    private final String[] values = {"-", "-", "-", "-", "-"};
+
+    public PerformanceHud(MazeCanvas canvas) {
+        this.canvas = canvas;
+        timer.setCoalesce(true);
+        setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+        setToolTipText("Sampled " + SAMPLES_PER_SECOND + " times a second");
+    }
+
+    /**
+     * Follows the given solver instead of the last one.
+     */
+    public void setSolver(MazeSolver solver) {
+        if (this.solver != null) this.solver.removeEventListener(this);
+        this.solver = solver;
+        if (solver != null) solver.addEventListener(this);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        timer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        timer.stop();
+        super.removeNotify();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        FontMetrics metrics = getFontMetrics(getFont());
+        return new Dimension(metrics.stringWidth("Frontier 00000000") + PADDING * 2,
+                metrics.getHeight() * LABELS.length + SPARKLINE_HEIGHT + PADDING * 3);
+    }
+
+    private void sample() {
+        if (!isShowing()) return;
+        long now = System.nanoTime(), tryouts = this.tryouts;
+        if (solves != seenSolves) {
+            seenSolves = solves;
+            sampleCount = 0;
+            lastTryouts = startTryouts;
+        }
+        if (lastNanos != 0 && now > lastNanos)
+            values[0] = String.format("%,.0f", (tryouts - lastTryouts) * 1e9 / (now - lastNanos));
+        lastTryouts = tryouts;
+        lastNanos = now;
+        values[1] = String.format("%,d", events - startEvents);
+        int frontier = solver == null ? 0 : solver.getFrontier();
+        frontiers[sampleCount++ % HISTORY] = frontier;
+        values[2] = String.format("%,d", frontier);
+        Runtime runtime = Runtime.getRuntime();
+        values[3] = ((runtime.totalMemory() - runtime.freeMemory()) >> 20) + " MB";
+        values[4] = String.format("%.1f ms", canvas.getPaintNanos() / 1e6);
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setColor(BACKGROUND);
+        g2.fillRoundRect(0, 0, getWidth(), getHeight(), 8, 8);
+        g2.setFont(getFont());
+        FontMetrics metrics = g2.getFontMetrics();
+        int y = PADDING;
+        for (int i = 0; i < LABELS.length; i++) {
+            y += metrics.getHeight();
+            g2.setColor(Color.lightGray);
+            g2.drawString(LABELS[i], PADDING, y - metrics.getDescent());
+            g2.setColor(Color.white);
+            g2.drawString(values[i], getWidth() - PADDING - metrics.stringWidth(values[i]), y - metrics.getDescent());
+        }
+        paintSparkline(g2, PADDING, y + PADDING, getWidth() - PADDING * 2, SPARKLINE_HEIGHT);
+    }
+
+    // Oldest sample on the left, scaled to the largest one shown.
+    private void paintSparkline(Graphics2D g, int x, int y, int w, int h) {
+        g.setColor(Color.darkGray);
+        g.drawLine(x, y + h, x + w, y + h);
+        int count = Math.min(sampleCount, HISTORY), first = sampleCount - count, max = 1;
+        if (count < 2) return;
+        for (int i = 0; i < count; i++) max = Math.max(max, frontiers[(first + i) % HISTORY]);
+        int[] xs = new int[count], ys = new int[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = x + w * (HISTORY - count + i) / (HISTORY - 1);
+            ys[i] = y + h - (int) ((long) h * frontiers[(first + i) % HISTORY] / max);
+        }
+        g.setColor(SPARKLINE);
+        g.drawPolyline(xs, ys, count);
+    }
+
+    @Override
+    public void started(int r, int c, int tR, int tC, MazeBlock[][] map) {
+        startTryouts = tryouts;
+        startEvents = events++;
+        solves++;
+    }
+
+    @Override
+    public void tryout(int r, int c, MazeSolver.Direction direction, Object path, MazeBlock[][] map) {
+        tryouts++;
+        events++;
+    }
+
+    @Override
+    public void found(int tR, int tC, Object path, MazeBlock[][] map) {
+        events++;
+    }
+
+    @Override
+    public void failed(int r, int c, Object path, MazeBlock[][] map) {
+        events++;
+    }
+
+    @Override
+    public void ended(boolean hasPath, MazeBlock[][] map) {
+        events++;
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.apollozhu.mazesolver.view;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Encodes an RGB PNG a few rows at a time, so the whole picture
+ * never has to be in memory. Each row uses the Up filter.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+public class PngWriter implements Closeable {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final byte FILTER_UP = 2;
+    private final WritableByteChannel channel;
+    private final int width, height;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE + 12);
+    private final byte[] compressed = new byte[CHUNK_SIZE];
+    private byte[] row, previous;
+    private int compressedSize, rowsWritten;
+
+    public PngWriter(WritableByteChannel channel, int width, int height) throws IOException {
+        if (width <= 0 || height <= 0) throw new IOException("Image must not be empty");
+        this.channel = channel;
+        this.width = width;
+        this.height = height;
+        this.row = new byte[1 + 3 * width];
+        this.previous = new byte[1 + 3 * width];
+        writeFully(ByteBuffer.wrap(SIGNATURE));
+        ByteBuffer header = ByteBuffer.allocate(13);
+        header.putInt(width).putInt(height);
+        header.put((byte) 8).put((byte) 2); // 8 bits per channel, RGB
+        header.put((byte) 0).put((byte) 0).put((byte) 0);
+        writeChunk("IHDR", header.array(), 13);
+    }
+
+    public static PngWriter open(Path file, int width, int height) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            return new PngWriter(channel, width, height);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the first rows of an image as wide as this one.
+     */
+    public void write(BufferedImage image, int rows) throws IOException {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB && image.getRaster().getParent() == null
+                && image.getRaster().getSampleModelTranslateX() == 0
+                && image.getRaster().getSampleModelTranslateY() == 0) {
+            int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            int stride = image.getWidth();
+            for (int y = 0; y < rows; y++) writeRow(pixels, y * stride);
+        } else {
+            int[] line = new int[width];
+            for (int y = 0; y < rows; y++) writeRow(image.getRGB(0, y, width, 1, line, 0, width), 0);
+        }
+    }
+
+    /**
+     * @param pixels RGB values, one int for each pixel.
+     */
+    public void writeRow(int[] pixels, int offset) throws IOException {
+        if (rowsWritten == height) throw new IOException("Image already has " + height + " rows");
+        row[0] = FILTER_UP;
+        for (int x = 0, k = 1; x < width; x++, k += 3) {
+            int pixel = pixels[offset + x];
+            row[k] = (byte) ((pixel >> 16) - previous[k]);
+            row[k + 1] = (byte) ((pixel >> 8) - previous[k + 1]);
+            row[k + 2] = (byte) (pixel - previous[k + 2]);
+            // Keep the unfiltered bytes for the next row.
+            previous[k] = (byte) (pixel >> 16);
+            previous[k + 1] = (byte) (pixel >> 8);
+            previous[k + 2] = (byte) pixel;
+        }
+        deflater.setInput(row);
+        while (!deflater.needsInput()) deflate();
+        rowsWritten++;
+    }
+
+    private void deflate() throws IOException {
+        compressedSize += deflater.deflate(compressed, compressedSize, CHUNK_SIZE - compressedSize);
+        if (compressedSize == CHUNK_SIZE) flush();
+    }
+
+    private void flush() throws IOException {
+        if (compressedSize == 0) return;
+        writeChunk("IDAT", compressed, compressedSize);
+        compressedSize = 0;
+    }
+
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        chunk.clear();
+        chunk.putInt(length);
+        for (int i = 0; i < 4; i++) chunk.put((byte) type.charAt(i));
+        chunk.put(data, 0, length);
+        CRC32 checksum = new CRC32();
+        checksum.update(chunk.array(), 4, length + 4);
+        chunk.putInt((int) checksum.getValue());
+        chunk.flip();
+        writeFully(chunk);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rowsWritten != height) throw new IOException("Image has " + rowsWritten
+                    + " rows instead of " + height);
+            deflater.finish();
+            while (!deflater.finished()) deflate();
+            flush();
+            writeChunk("IEND", compressed, 0);
+        } finally {
+            deflater.end();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.apollozhu.mazesolver.view;
+
+import javax.swing.*;
+
+/**
+ * Collects areas to repaint from any thread and repaints them together
+ * once per frame, so a fast solver can't flood the event dispatch thread.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+class RenderScheduler {
+    static final int FRAMES_PER_SECOND = 60;
+    private final JComponent component;
+    private final Timer timer;
+    private int fromX, fromY, toX, toY;
+    private boolean isDirty, isAllDirty;
+
+    RenderScheduler(JComponent component) {
+        this.component = component;
+        this.timer = new Timer(1000 / FRAMES_PER_SECOND, ignored -> flush());
+        timer.setCoalesce(true);
+    }
+
+    void start() {
+        timer.start();
+    }
+
+    void stop() {
+        timer.stop();
+        flush();
+    }
+
+    synchronized void repaint(int x, int y, int w, int h) {
+        if (isAllDirty) return;
+        if (!isDirty) {
+            isDirty = true;
+            fromX = x;
+            fromY = y;
+            toX = x + w;
+            toY = y + h;
+            return;
+        }
+        fromX = Math.min(fromX, x);
+        fromY = Math.min(fromY, y);
+        toX = Math.max(toX, x + w);
+        toY = Math.max(toY, y + h);
+    }
+
+    synchronized void repaintAll() {
+        isAllDirty = true;
+    }
+
+    private void flush() {
+        int x, y, w, h;
+        boolean isAll;
+        synchronized (this) {
+            if (!isDirty && !isAllDirty) return;
+            isAll = isAllDirty;
+            x = fromX;
+            y = fromY;
+            w = toX - fromX;
+            h = toY - fromY;
+            isDirty = isAllDirty = false;
+        }
+        if (isAll) component.repaint();
+        else component.repaint(x, y, w, h);
+    }
+}
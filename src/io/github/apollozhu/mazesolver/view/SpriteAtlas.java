@@ -0,0 +1,57 @@
+package io.github.apollozhu.mazesolver.view;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Glyphs rendered once for a block size, so drawing one is a single drawImage.
+ * Each sprite is rendered the first time it's drawn.
+ *
+ * @author ApolloZhu, Pd. 1
+ */
+class SpriteAtlas {
+    private final BufferedImage[] sprites;
+    private final Renderer renderer;
+    private final int side, reach, padding;
+
+    /**
+     * @param count number of glyph variants, indexed from 0.
+     * @param reach number of blocks the glyphs extend into on each side.
+     */
+    SpriteAtlas(int side, int count, int reach, Renderer renderer) {
+        this.sprites = new BufferedImage[count];
+        this.renderer = renderer;
+        this.side = side;
+        this.reach = reach;
+        // Room for strokes and round caps sticking out of the block.
+        this.padding = side / 10 + 1;
+    }
+
+    int getSide() {
+        return side;
+    }
+
+    void draw(Graphics g, int index, int x, int y) {
+        BufferedImage sprite = sprites[index];
+        if (sprite == null) sprites[index] = sprite = render(index);
+        int offset = reach * side + padding;
+        g.drawImage(sprite, x - offset, y - offset, null);
+    }
+
+    private BufferedImage render(int index) {
+        int size = side * (2 * reach + 1) + 2 * padding;
+        BufferedImage sprite = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = sprite.createGraphics();
+        g.translate(reach * side + padding, reach * side + padding);
+        renderer.render(g, index, side);
+        g.dispose();
+        return sprite;
+    }
+
+    interface Renderer {
+        /**
+         * Paints a glyph for the block at (0, 0).
+         */
+        void render(Graphics2D g, int index, int side);
+    }
+}